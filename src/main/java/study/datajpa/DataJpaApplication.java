@@ -5,9 +5,15 @@ import java.util.UUID;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ImportRuntimeHints;
 import org.springframework.data.domain.AuditorAware;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import study.datajpa.config.DataJpaRuntimeHints;
 
 /**
  *  @EnableJpaRepositories 
@@ -21,11 +27,20 @@ import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
  */
 //@EnableJpaRepositories(basePackages = "패키지경로")
 @EnableJpaAuditing
+@EnableCaching
+@EnableScheduling
 @SpringBootApplication
+@ImportRuntimeHints(DataJpaRuntimeHints.class) // native image 빌드 시 프로젝션 프록시, DTO 생성자 등록
 public class DataJpaApplication {
 
+	/**
+	 * BufferingApplicationStartup
+	 * · 기동 단계(빈 생성, 컨텍스트 refresh 등)별 소요 시간을 기록한다. /actuator/startup 으로 조회 가능.
+	 */
 	public static void main(String[] args) {
-		SpringApplication.run(DataJpaApplication.class, args);
+		SpringApplication application = new SpringApplication(DataJpaApplication.class);
+		application.setApplicationStartup(new BufferingApplicationStartup(2048));
+		application.run(args);
 	}
 
 	/**
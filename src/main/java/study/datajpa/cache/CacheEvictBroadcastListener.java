@@ -0,0 +1,36 @@
+package study.datajpa.cache;
+
+import java.util.List;
+
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * 리포지토리 메소드에 선언한 @CacheEvict (ex. MemberRepository.bulkAgePlus) 를 다른 노드에도 전달한다.
+ * 엔티티 변경에 의한 무효화는 QueryCacheEvictListener 가 전달한다.
+ * 
+ * · 리스너는 리포지토리 트랜잭션 안에서 호출되므로 바로 보내지 않고 QueryCacheEvictor 로 커밋 이후에 로컬 캐시를 다시 비우고 보낸다.
+ *   (커밋 전에 보내면 다른 노드가 아직 변경 전인 row 로 캐시를 다시 채울 수 있다)
+ * · 같은 트랜잭션의 남은 조회도 해당 캐시를 사용하지 않는다.
+ */
+@Component
+public class CacheEvictBroadcastListener implements RepositoryMethodInvocationListener {
+
+	private final QueryCacheEvictor queryCacheEvictor;
+	
+	public CacheEvictBroadcastListener(QueryCacheEvictor queryCacheEvictor) {
+		this.queryCacheEvictor = queryCacheEvictor;
+	}
+	
+	@Override
+	public void afterInvocation(RepositoryMethodInvocation invocation) {
+		CacheEvict cacheEvict = AnnotatedElementUtils.findMergedAnnotation(invocation.getMethod(), CacheEvict.class);
+		if (cacheEvict == null || invocation.getResult().getState() != RepositoryMethodInvocationResult.State.SUCCESS) {
+			return;
+		}
+		
+		queryCacheEvictor.evict(List.of(cacheEvict.cacheNames()));
+	}
+}
@@ -0,0 +1,28 @@
+package study.datajpa.cache;
+
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * LoopbackInvalidationTransport 등록 (datajpa.cache.invalidation.transport=loopback 일 때만)
+ * 
+ * · loopback 은 같은 컨텍스트 안에서만 메시지를 전달하므로 기본값으로 등록하지 않는다.
+ *   여러 노드로 운영할 때 브로커 transport 빈 없이 loopback 이 조용히 사용되면 다른 노드의 캐시가 비워지지 않는다.
+ *   transport 빈이 하나도 없으면 CacheInvalidationBus 가 시작할 때 WARN 을 남기고 로컬 캐시만 비운다.
+ * · @ConditionalOnMissingBean 은 사용자 @Configuration 에서는 처리 순서에 따라 결과가 달라질 수 있다.
+ *   (브로커 transport 를 등록하는 설정 클래스가 나중에 처리되면 transport 빈이 두 개가 된다)
+ * · 자동 구성은 모든 사용자 설정이 처리된 뒤에 처리되므로 auto-configuration 으로 등록한다.
+ *   META-INF/spring/org.springframework.boot.autoconfigure.AutoConfiguration.imports 에 등록되어 있으면 컴포넌트 스캔 대상에서는 제외된다.
+ */
+@AutoConfiguration
+public class CacheInvalidationAutoConfiguration {
+
+	@Bean
+	@ConditionalOnMissingBean(InvalidationTransport.class)
+	@ConditionalOnProperty(name = "datajpa.cache.invalidation.transport", havingValue = "loopback")
+	public InvalidationTransport invalidationTransport() {
+		return new LoopbackInvalidationTransport();
+	}
+}
@@ -0,0 +1,99 @@
+package study.datajpa.cache;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 노드 간 캐시 무효화
+ * 
+ * · 한 노드에서 Member / Team 을 변경하거나 bulkAgePlus 를 실행하면 다른 노드의 로컬 캐시(Caffeine)는 이전 데이터를 가지고 있다.
+ * · 로컬 캐시를 비울 때 publish() 로 캐시 이름을 등록해 두면 flush-interval 마다 모아서 한 번에 다른 노드로 보낸다.
+ *   같은 캐시를 여러 번 비워도 한 번만 보낸다. (coalescing)
+ * · 다른 노드에서 받은 메시지는 로컬 캐시만 비우고 다시 보내지 않는다. 자기 자신이 보낸 메시지는 무시한다.
+ * · InvalidationTransport 빈이 없으면 시작할 때 WARN 을 남기고, 이후 publish 는 아무것도 하지 않는다. (단일 노드)
+ */
+@Slf4j
+@Component
+public class CacheInvalidationBus {
+
+	private final String nodeId = UUID.randomUUID().toString();
+	private final Set<String> pending = ConcurrentHashMap.newKeySet();
+	private final Consumer<InvalidationMessage> receiver = this::receive;
+	
+	private final CacheManager cacheManager;
+	private final InvalidationTransport transport;
+	
+	public CacheInvalidationBus(CacheManager cacheManager, @Nullable InvalidationTransport transport) {
+		this.cacheManager = cacheManager;
+		this.transport = transport;
+	}
+	
+	@PostConstruct
+	public void start() {
+		if (transport == null) {
+			log.warn("no InvalidationTransport bean, cache invalidation is not sent to other nodes. "
+					+ "register a broker transport for multi-node deployments (datajpa.cache.invalidation.transport=loopback is for tests only)");
+			return;
+		}
+		transport.subscribe(receiver);
+	}
+	
+	public void publish(String cacheName) {
+		if (transport != null) {
+			pending.add(cacheName);
+		}
+	}
+	
+	/**
+	 * 애플리케이션 종료 시에도 남은 메시지를 보내고 종료한다.
+	 */
+	@Scheduled(fixedDelayString = "${datajpa.cache.invalidation.flush-interval:200}")
+	@PreDestroy
+	public void flush() {
+		if (pending.isEmpty()) {
+			return;
+		}
+		
+		Set<String> batch = new HashSet<>();
+		for (Iterator<String> it = pending.iterator(); it.hasNext();) {
+			batch.add(it.next());
+			it.remove();
+		}
+		transport.publish(new InvalidationMessage(nodeId, batch));
+	}
+	
+	@PreDestroy
+	public void stop() {
+		if (transport != null) {
+			transport.unsubscribe(receiver);
+		}
+	}
+	
+	private void receive(InvalidationMessage message) {
+		if (nodeId.equals(message.nodeId())) {
+			return;
+		}
+		
+		log.debug("cache invalidation from node {} : {}", message.nodeId(), message.cacheNames());
+		for (String cacheName : message.cacheNames()) {
+			Cache cache = cacheManager.getCache(cacheName);
+			if (cache != null) {
+				cache.clear();
+			}
+		}
+	}
+}
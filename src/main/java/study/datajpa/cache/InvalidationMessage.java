@@ -0,0 +1,9 @@
+package study.datajpa.cache;
+
+import java.util.Set;
+
+/**
+ * 캐시 무효화 메시지. 한 노드에서 일정 시간 동안 모인 캐시 이름을 한 번에 보낸다.
+ */
+public record InvalidationMessage(String nodeId, Set<String> cacheNames) {
+}
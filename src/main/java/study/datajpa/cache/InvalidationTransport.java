@@ -0,0 +1,19 @@
+package study.datajpa.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * 노드 간 캐시 무효화 메시지 전송 방식
+ * 
+ * · 여러 노드로 운영할 때는 메시지 브로커(Redis pub/sub, Kafka 등)를 사용하는 구현체를 빈으로 등록한다.
+ * · 같은 컨텍스트 안에서만 전달하는 LoopbackInvalidationTransport 는 datajpa.cache.invalidation.transport=loopback 일 때만 등록된다. (테스트용)
+ * · 구현체 빈이 없으면 CacheInvalidationBus 는 시작할 때 WARN 을 남기고 다른 노드로 보내지 않는다.
+ */
+public interface InvalidationTransport {
+
+	void publish(InvalidationMessage message);
+	
+	void subscribe(Consumer<InvalidationMessage> listener);
+	
+	void unsubscribe(Consumer<InvalidationMessage> listener);
+}
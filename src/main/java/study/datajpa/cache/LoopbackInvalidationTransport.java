@@ -0,0 +1,33 @@
+package study.datajpa.cache;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * 같은 transport 인스턴스를 구독한 CacheInvalidationBus 끼리만 메시지를 전달한다. 다른 노드(JVM)로는 전달하지 않는다.
+ * 
+ * · 테스트에서 여러 노드를 흉내낼 때 사용한다. 스프링 컨텍스트에서는 datajpa.cache.invalidation.transport=loopback 일 때만 등록된다.
+ * · 채널은 인스턴스마다 따로다. 빈으로 등록하면 해당 스프링 컨텍스트 안에서만 메시지가 오가고, 같은 JVM 의 다른 컨텍스트와 섞이지 않는다.
+ */
+public class LoopbackInvalidationTransport implements InvalidationTransport {
+
+	private final List<Consumer<InvalidationMessage>> listeners = new CopyOnWriteArrayList<>();
+	
+	@Override
+	public void publish(InvalidationMessage message) {
+		for (Consumer<InvalidationMessage> listener : listeners) {
+			listener.accept(message);
+		}
+	}
+	
+	@Override
+	public void subscribe(Consumer<InvalidationMessage> listener) {
+		listeners.add(listener);
+	}
+	
+	@Override
+	public void unsubscribe(Consumer<InvalidationMessage> listener) {
+		listeners.remove(listener);
+	}
+}
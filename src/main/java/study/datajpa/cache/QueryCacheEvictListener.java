@@ -0,0 +1,30 @@
+package study.datajpa.cache;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * 엔티티 변경 시 조회 결과 캐시 비우기
+ * 
+ * · @EntityListeners(QueryCacheEvictListener.class) 로 엔티티에 등록한다.
+ *   save() 뿐만 아니라 변경 감지(dirty checking)에 의한 update, remove 도 모두 잡을 수 있다.
+ * · 스프링 부트는 하이버네이트에 SpringBeanContainer 를 등록하기 때문에 엔티티 리스너도 스프링 빈처럼 생성자 주입을 받을 수 있다.
+ * · 변경된 엔티티에 의존하는 캐시만 QueryCacheEvictor 로 비운다. (트랜잭션 안이면 커밋 이후, 트랜잭션마다 한 번)
+ * · @Modifying 벌크 쿼리는 엔티티 이벤트가 발생하지 않으므로 리포지토리 메소드에 @CacheEvict 를 직접 선언한다.
+ */
+public class QueryCacheEvictListener {
+
+	private final QueryCacheEvictor queryCacheEvictor;
+	
+	public QueryCacheEvictListener(QueryCacheEvictor queryCacheEvictor) {
+		this.queryCacheEvictor = queryCacheEvictor;
+	}
+	
+	@PostPersist
+	@PostUpdate
+	@PostRemove
+	public void evict(Object entity) {
+		queryCacheEvictor.evict(QueryCacheNames.dependentOn(entity.getClass()));
+	}
+}
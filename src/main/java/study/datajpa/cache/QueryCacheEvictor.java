@@ -0,0 +1,148 @@
+package study.datajpa.cache;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.hibernate.Session;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataAccessException;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * 조회 결과 캐시 비우기 (QueryCacheEvictListener, CacheEvictBroadcastListener 에서 사용)
+ * 
+ * · 트랜잭션 안이면 커밋 이후에 비운다. (커밋 전에 비우면 다른 스레드가 이전 데이터로 다시 캐시를 채울 수 있다.) 롤백되면 비우지 않는다.
+ * · 트랜잭션마다 TransactionSynchronization 을 하나만 등록하고 비울 캐시 이름을 모아둔다. 
+ *   회원 1000명을 저장하는 트랜잭션도 커밋 후 캐시마다 한 번씩만 비운다.
+ * · 로컬 캐시를 비운 뒤 CacheInvalidationBus 로 다른 노드에도 알린다.
+ * · 커밋 전까지 비울 예정인 캐시는 같은 트랜잭션에서 사용하지 않는다. (isCacheable)
+ */
+@Component
+public class QueryCacheEvictor {
+
+	/**
+	 * 조회 결과 캐시 조건 - @Cacheable(cacheNames = ..., condition = QueryCacheEvictor.CACHEABLE)
+	 */
+	public static final String CACHEABLE = "@queryCacheEvictor.isCacheable(#root.caches[0].name)";
+	
+	// 현재 트랜잭션에 바인딩하는 PendingEviction 의 키
+	private static final Object PENDING_EVICTION_KEY = new Object();
+	
+	private final CacheManager cacheManager;
+	private final CacheInvalidationBus cacheInvalidationBus;
+	// 엔티티 리스너(QueryCacheEvictListener)가 EntityManagerFactory 생성 중에 이 빈을 주입받으므로 늦게 꺼낸다
+	private final ObjectProvider<EntityManagerFactory> entityManagerFactory;
+	
+	public QueryCacheEvictor(CacheManager cacheManager, CacheInvalidationBus cacheInvalidationBus,
+			ObjectProvider<EntityManagerFactory> entityManagerFactory) {
+		this.cacheManager = cacheManager;
+		this.cacheInvalidationBus = cacheInvalidationBus;
+		this.entityManagerFactory = entityManagerFactory;
+	}
+	
+	public void evict(Collection<String> cacheNames) {
+		if (cacheNames.isEmpty()) {
+			return;
+		}
+		
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			pendingEviction().cacheNames.addAll(cacheNames);
+		} else {
+			clear(cacheNames);
+		}
+	}
+	
+	/**
+	 * 현재 트랜잭션에 아직 커밋되지 않은 변경이 있으면 해당 캐시를 사용하지 않는다. (캐시 조회, 저장 없이 DB 를 조회)
+	 * · 캐시는 커밋 후에 비우므로, 캐시를 사용하면 자기 트랜잭션의 변경이 보이지 않고 커밋 전 데이터가 캐시에 저장될 수 있다.
+	 * · 이미 flush 된 변경은 비울 예정인 캐시 이름(PendingEviction)으로 확인한다.
+	 * · 아직 flush 되지 않은 변경(저장 대기, 변경 감지 대상)이 있으면 어떤 캐시도 사용하지 않는다. 
+	 *   이 조건은 리포지토리의 예외 변환 프록시 바깥(캐시 인터셉터)에서 평가되므로 flush 하지 않고 isDirty() 로 확인만 한다.
+	 *   (여기서 flush 하면 제약 조건 위반 등이 조회 메소드에서 변환되지 않은 PersistenceException 으로 전달된다)
+	 */
+	public boolean isCacheable(String cacheName) {
+		PendingEviction pending = (PendingEviction) TransactionSynchronizationManager.getResource(PENDING_EVICTION_KEY);
+		if (pending != null && pending.cacheNames.contains(cacheName)) {
+			return false;
+		}
+		
+		if (TransactionSynchronizationManager.isActualTransactionActive() 
+				&& !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			EntityManagerFactory emf = entityManagerFactory.getIfAvailable();
+			EntityManagerHolder holder = emf == null ? null : (EntityManagerHolder) TransactionSynchronizationManager.getResource(emf);
+			return holder == null || !hasUnflushedChanges(holder.getEntityManager());
+		}
+		return true;
+	}
+	
+	/**
+	 * isDirty() 는 SQL 을 실행하지 않고 변경 감지만 한다. 그래도 발생하는 예외(cascade 대상이 transient 인 경우 등)는 스프링 예외로 변환한다.
+	 */
+	private static boolean hasUnflushedChanges(EntityManager em) {
+		try {
+			return em.unwrap(Session.class).isDirty();
+		} catch (RuntimeException e) {
+			DataAccessException translated = EntityManagerFactoryUtils.convertJpaAccessExceptionIfPossible(e);
+			throw translated != null ? translated : e;
+		}
+	}
+	
+	private PendingEviction pendingEviction() {
+		PendingEviction pending = (PendingEviction) TransactionSynchronizationManager.getResource(PENDING_EVICTION_KEY);
+		if (pending == null) {
+			pending = new PendingEviction();
+			TransactionSynchronizationManager.bindResource(PENDING_EVICTION_KEY, pending);
+			TransactionSynchronizationManager.registerSynchronization(pending);
+		}
+		return pending;
+	}
+	
+	private void clear(Collection<String> cacheNames) {
+		for (String cacheName : cacheNames) {
+			Cache cache = cacheManager.getCache(cacheName);
+			if (cache != null) {
+				cache.clear();
+			}
+			cacheInvalidationBus.publish(cacheName);
+		}
+	}
+	
+	/**
+	 * 트랜잭션 하나에서 커밋 후 비울 캐시 이름
+	 * · 다른 트랜잭션(REQUIRES_NEW)이 시작되어 현재 트랜잭션이 보류되면 바인딩도 풀었다가 재개될 때 다시 바인딩한다.
+	 */
+	private class PendingEviction implements TransactionSynchronization {
+		
+		private final Set<String> cacheNames = new LinkedHashSet<>();
+		
+		@Override
+		public void suspend() {
+			TransactionSynchronizationManager.unbindResource(PENDING_EVICTION_KEY);
+		}
+		
+		@Override
+		public void resume() {
+			TransactionSynchronizationManager.bindResource(PENDING_EVICTION_KEY, this);
+		}
+		
+		@Override
+		public void afterCommit() {
+			clear(cacheNames);
+		}
+		
+		@Override
+		public void afterCompletion(int status) {
+			TransactionSynchronizationManager.unbindResourceIfPossible(PENDING_EVICTION_KEY);
+		}
+	}
+}
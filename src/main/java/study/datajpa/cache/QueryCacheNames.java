@@ -0,0 +1,32 @@
+package study.datajpa.cache;
+
+import java.util.List;
+
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+
+/**
+ * 리포지토리 조회 결과 캐시 이름과 각 캐시가 의존하는 엔티티
+ * 
+ * · 캐시는 조회 메소드 별로 하나씩 둔다. (인자 없는 메소드끼리 키가 겹치지 않도록)
+ * · 엔티티가 아닌 값(String, DTO)을 반환하는 메소드만 캐시한다. 엔티티 인스턴스는 스레드, 트랜잭션 간에 공유하면 안 된다.
+ * · 엔티티가 변경되면 해당 엔티티에 의존하는 캐시만 비운다.
+ */
+public final class QueryCacheNames {
+
+	public static final String MEMBER_USERNAMES = "member.usernames";
+	public static final String MEMBER_DTO = "member.dto";
+	
+	private QueryCacheNames() {
+	}
+	
+	public static List<String> dependentOn(Class<?> entityType) {
+		if (Member.class.isAssignableFrom(entityType)) {
+			return List.of(MEMBER_USERNAMES, MEMBER_DTO);
+		}
+		if (Team.class.isAssignableFrom(entityType)) {
+			return List.of(MEMBER_DTO); // MemberDto 에 team 이름이 들어간다
+		}
+		return List.of();
+	}
+}
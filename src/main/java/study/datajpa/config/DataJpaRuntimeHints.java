@@ -0,0 +1,39 @@
+package study.datajpa.config;
+
+import org.springframework.aop.SpringProxy;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.core.DecoratingProxy;
+import org.springframework.data.projection.TargetAware;
+
+import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberSearchCondition;
+import study.datajpa.dto.UsernameOnlyDto;
+import study.datajpa.repository.MemberProjections;
+import study.datajpa.repository.UsernameOnly;
+
+/**
+ * GraalVM native image 용 reachability metadata
+ * 
+ * · 엔티티, 리포지토리 프록시는 스프링 AOT(processAot)가 자동으로 등록한다.
+ * · 동적 프로젝션(findProjectionsGenericByUsername(..., Class<T>))은 빌드 시점에 타입을 알 수 없으므로 직접 등록한다.
+ *   - 인터페이스 프로젝션: 스프링 데이터가 만드는 JDK 프록시 인터페이스 조합
+ *   - 클래스 프로젝션 / JPQL new 생성자 / @ConstructorResult: 생성자 리플렉션
+ */
+public class DataJpaRuntimeHints implements RuntimeHintsRegistrar {
+
+	@Override
+	public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+		for (Class<?> projection : new Class<?>[] {UsernameOnly.class, MemberProjections.class}) {
+			hints.proxies().registerJdkProxy(projection, TargetAware.class, SpringProxy.class, DecoratingProxy.class);
+		}
+		
+		for (Class<?> dto : new Class<?>[] {MemberDto.class, UsernameOnlyDto.class, MemberSearchCondition.class}) {
+			hints.reflection().registerType(dto, 
+					MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+		}
+		
+		hints.resources().registerPattern("db/migration/*.sql");
+	}
+}
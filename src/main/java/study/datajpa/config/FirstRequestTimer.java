@@ -0,0 +1,51 @@
+package study.datajpa.config;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 기동 시간 측정 - JVM 시작부터 첫 번째 요청의 응답이 끝날 때까지 걸린 시간 (time-to-first-request)
+ * 
+ * · application.ready.time 은 컨텍스트 준비까지의 시간이라 lazy 부트스트랩으로 미뤄둔 리포지토리/EntityManagerFactory 초기화가 포함되지 않는다.
+ * · 첫 요청 시간을 application.first.request.time 메트릭과 로그로 남긴다.
+ */
+@Slf4j
+@Component
+public class FirstRequestTimer extends OncePerRequestFilter {
+
+	private final AtomicBoolean recorded = new AtomicBoolean();
+	private final MeterRegistry meterRegistry;
+	
+	public FirstRequestTimer(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+	
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		try {
+			filterChain.doFilter(request, response);
+		} finally {
+			if (!recorded.get() && recorded.compareAndSet(false, true)) {
+				long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+				TimeGauge.builder("application.first.request.time", () -> uptime, TimeUnit.MILLISECONDS)
+						.description("Time from JVM start until the first request was served")
+						.register(meterRegistry);
+				log.info("time to first request: {} ms ({})", uptime, request.getRequestURI());
+			}
+		}
+	}
+}
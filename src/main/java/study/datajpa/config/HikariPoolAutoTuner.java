@@ -0,0 +1,75 @@
+package study.datajpa.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 커넥션 풀 크기 자동 조정
+ * 
+ * · 주기적으로 풀 상태(active, idle, 커넥션을 기다리는 스레드 수)를 확인해서 maximum-pool-size 를 min ~ max 범위 안에서 조정한다.
+ * · 커넥션을 기다리는 스레드가 있으면 step 만큼 늘린다.
+ * · shrink-after 회 연속으로 active 가 현재 크기의 절반 이하이면 step 만큼 줄인다.
+ *   (줄어든 커넥션은 idle-timeout 이 지나면 풀에서 정리된다.)
+ * · 풀 상태 지표 자체는 actuator 의 hikaricp.connections.* 메트릭으로 확인한다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "datajpa.hikari.autotune.enabled", havingValue = "true")
+public class HikariPoolAutoTuner {
+
+	private final HikariDataSource dataSource;
+	private final int minPoolSize;
+	private final int maxPoolSize;
+	private final int step;
+	private final int shrinkAfter;
+	
+	private int idlePeriods;
+	
+	public HikariPoolAutoTuner(HikariDataSource dataSource,
+			@Value("${datajpa.hikari.autotune.min-pool-size:5}") int minPoolSize,
+			@Value("${datajpa.hikari.autotune.max-pool-size:30}") int maxPoolSize,
+			@Value("${datajpa.hikari.autotune.step:2}") int step,
+			@Value("${datajpa.hikari.autotune.shrink-after:6}") int shrinkAfter) {
+		this.dataSource = dataSource;
+		this.minPoolSize = minPoolSize;
+		this.maxPoolSize = maxPoolSize;
+		this.step = step;
+		this.shrinkAfter = shrinkAfter;
+	}
+	
+	@Scheduled(fixedDelayString = "${datajpa.hikari.autotune.interval:10000}")
+	public void tune() {
+		HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+		if (pool == null) { // 아직 풀이 시작되지 않음
+			return;
+		}
+		
+		int current = dataSource.getMaximumPoolSize();
+		int active = pool.getActiveConnections();
+		int pending = pool.getThreadsAwaitingConnection();
+		
+		if (pending > 0 && current < maxPoolSize) {
+			idlePeriods = 0;
+			resize(current, Math.min(maxPoolSize, current + step), active, pending);
+		} else if (active <= current / 2 && current > minPoolSize) {
+			if (++idlePeriods >= shrinkAfter) {
+				idlePeriods = 0;
+				resize(current, Math.max(minPoolSize, current - step), active, pending);
+			}
+		} else {
+			idlePeriods = 0;
+		}
+	}
+	
+	private void resize(int from, int to, int active, int pending) {
+		log.info("hikari pool {} resize {} -> {} (active={}, pending={})", dataSource.getPoolName(), from, to, active, pending);
+		dataSource.setMaximumPoolSize(to);
+	}
+}
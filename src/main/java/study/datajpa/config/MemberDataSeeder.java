@@ -0,0 +1,76 @@
+package study.datajpa.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+
+/**
+ * 시드 데이터 생성 (embedded 프로파일)
+ * 
+ * · teams 개의 팀과 팀마다 members-per-team 명의 회원을 만든다.
+ * · 이름, 나이가 항상 같은 규칙으로 만들어지므로 성능 측정을 반복해도 같은 데이터로 비교할 수 있다.
+ *   (username = member{팀번호}_{회원번호}, age = 회원번호 % 100)
+ * · 팀 단위로 트랜잭션을 나누고 batch-size 마다 em.flush(); em.clear(); 하여 영속성 컨텍스트가 커지지 않도록 한다.
+ */
+@Slf4j
+@Component
+@Profile("embedded")
+public class MemberDataSeeder implements ApplicationRunner {
+
+	private static final int FLUSH_SIZE = 100;
+	
+	@PersistenceContext
+	private EntityManager em;
+	
+	private final TransactionTemplate transactionTemplate;
+	private final boolean enabled;
+	private final int teams;
+	private final int membersPerTeam;
+	
+	public MemberDataSeeder(PlatformTransactionManager transactionManager,
+			@Value("${datajpa.seed.enabled:false}") boolean enabled,
+			@Value("${datajpa.seed.teams:100}") int teams,
+			@Value("${datajpa.seed.members-per-team:1000}") int membersPerTeam) {
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.enabled = enabled;
+		this.teams = teams;
+		this.membersPerTeam = membersPerTeam;
+	}
+	
+	@Override
+	public void run(ApplicationArguments args) {
+		if (enabled) {
+			seed(teams, membersPerTeam);
+		}
+	}
+	
+	public void seed(int teams, int membersPerTeam) {
+		long start = System.currentTimeMillis();
+		for (int t = 0; t < teams; t++) {
+			int teamNo = t;
+			transactionTemplate.executeWithoutResult(status -> {
+				Team team = new Team("team" + teamNo);
+				em.persist(team);
+				for (int m = 0; m < membersPerTeam; m++) {
+					em.persist(new Member("member" + teamNo + "_" + m, m % 100, team));
+					if ((m + 1) % FLUSH_SIZE == 0) {
+						em.flush();
+						em.clear();
+						team = em.getReference(Team.class, team.getId());
+					}
+				}
+			});
+		}
+		log.info("seeded {} teams, {} members in {} ms", teams, (long) teams * membersPerTeam, System.currentTimeMillis() - start);
+	}
+}
@@ -0,0 +1,40 @@
+package study.datajpa.config;
+
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * SQL 추적 상태 조회 / 변경
+ * · GET  /actuator/sqltrace
+ * · POST /actuator/sqltrace  {"enabled": true, "sampleRate": 0.1}
+ */
+@Component
+@Endpoint(id = "sqltrace")
+public class SqlTraceEndpoint {
+
+	private final SqlTraceInspector sqlTraceInspector;
+	
+	public SqlTraceEndpoint(SqlTraceInspector sqlTraceInspector) {
+		this.sqlTraceInspector = sqlTraceInspector;
+	}
+	
+	@ReadOperation
+	public Map<String, Object> status() {
+		return Map.of(
+				"enabled", sqlTraceInspector.isEnabled(),
+				"sampleRate", sqlTraceInspector.getSampleRate(),
+				"captured", sqlTraceInspector.getCaptured(),
+				"dropped", sqlTraceInspector.getDropped());
+	}
+	
+	@WriteOperation
+	public Map<String, Object> configure(@Nullable Boolean enabled, @Nullable Double sampleRate) {
+		sqlTraceInspector.configure(enabled, sampleRate);
+		return status();
+	}
+}
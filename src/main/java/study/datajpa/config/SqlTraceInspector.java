@@ -0,0 +1,117 @@
+package study.datajpa.config;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 저비용 SQL 추적
+ * 
+ * · hibernate.show_sql, format_sql, 바인딩 파라미터 TRACE 로그는 요청 스레드에서 문자열을 포맷하고 콘솔에 동기로 출력하므로 
+ *   부하가 걸리면 쿼리 실행보다 로그 비용이 더 커진다.
+ * · 하이버네이트가 만든 SQL 문자열을 그대로(포맷하지 않고) sample-rate 비율로만 수집하여 크기가 정해진 버퍼에 넣고,
+ *   별도의 로그 스레드가 버퍼에서 꺼내 출력한다. 요청 스레드는 버퍼에 넣기만 하며 버퍼가 가득 차면 버린다. (drop 카운트)
+ * · 바인딩 파라미터 값은 수집하지 않는다.
+ * · 느린 쿼리는 하이버네이트의 slow query 로그(hibernate.session.events.log.LOG_QUERIES_SLOWER_THAN_MS)로 따로 남긴다.
+ * · 재시작 없이 /actuator/sqltrace 로 켜고 끄거나 sample-rate 를 바꿀 수 있다. (SqlTraceEndpoint)
+ */
+@Slf4j
+@Component
+public class SqlTraceInspector implements StatementInspector, HibernatePropertiesCustomizer {
+
+	private final BlockingQueue<String> buffer;
+	private final AtomicLong captured = new AtomicLong();
+	private final AtomicLong dropped = new AtomicLong();
+	
+	private volatile boolean enabled;
+	private volatile double sampleRate;
+	private Thread writer;
+	
+	public SqlTraceInspector(
+			@Value("${datajpa.sql-trace.enabled:false}") boolean enabled,
+			@Value("${datajpa.sql-trace.sample-rate:0.01}") double sampleRate,
+			@Value("${datajpa.sql-trace.buffer-size:4096}") int bufferSize) {
+		this.enabled = enabled;
+		this.sampleRate = sampleRate;
+		this.buffer = new ArrayBlockingQueue<>(bufferSize);
+	}
+	
+	/**
+	 * 하이버네이트에 StatementInspector 로 등록
+	 */
+	@Override
+	public void customize(Map<String, Object> hibernateProperties) {
+		hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+	}
+	
+	@Override
+	public String inspect(String sql) {
+		if (enabled && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+			if (buffer.offer(sql)) {
+				captured.incrementAndGet();
+			} else {
+				dropped.incrementAndGet();
+			}
+		}
+		return sql;
+	}
+	
+	@PostConstruct
+	public void start() {
+		writer = new Thread(this::drain, "sql-trace-writer");
+		writer.setDaemon(true);
+		writer.start();
+	}
+	
+	@PreDestroy
+	public void stop() {
+		writer.interrupt();
+	}
+	
+	private void drain() {
+		try {
+			while (!Thread.currentThread().isInterrupted()) {
+				log.info("sql: {}", buffer.take());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	public void configure(Boolean enabled, Double sampleRate) {
+		if (enabled != null) {
+			this.enabled = enabled;
+		}
+		if (sampleRate != null) {
+			this.sampleRate = Math.max(0, Math.min(1, sampleRate));
+		}
+	}
+	
+	public boolean isEnabled() {
+		return enabled;
+	}
+	
+	public double getSampleRate() {
+		return sampleRate;
+	}
+	
+	public long getCaptured() {
+		return captured.get();
+	}
+	
+	public long getDropped() {
+		return dropped.get();
+	}
+}
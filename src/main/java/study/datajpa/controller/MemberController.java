@@ -5,6 +5,9 @@ import java.util.Iterator;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RestController;
@@ -12,8 +15,10 @@ import org.springframework.web.bind.annotation.RestController;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberSearchCondition;
 import study.datajpa.entity.Member;
 import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.UnsupportedSortPropertyException;
 
 @RestController
 @RequiredArgsConstructor
@@ -73,17 +78,38 @@ public class MemberController {
 	
 	/**
 	 * Member -> MemberDTO 객체로 변환하여 리턴
+	 * 
+	 * 엔티티를 조회해서 변환하지 않고 MemberDto 에 필요한 컬럼만 조회한다. (team 이름 포함)
 	 */
 	@GetMapping("/membersDto")
 	public Page<MemberDto> listDto(@PageableDefault(size = 5) Pageable pageable){
-		Page<Member> page = memberRepository.findAll(pageable);
+//		Page<Member> page = memberRepository.findAll(pageable);
 		// 1. MemberDto에 파라미터를 각각 직접 넘김
 //		return page.map(member -> new MemberDto(member.getId(), member.getUsername(), null));
 		
 		// 2. MemberDto에 member를 파라미터로 넘김
 //		return page.map(member -> new MemberDto(member));
 		// 3. 2번을 아래처럼 가능
-		return page.map(MemberDto::new);
+//		return page.map(MemberDto::new);
+		
+		// 4. JPQL new 명령어로 DTO 바로 조회
+		return memberRepository.findMemberDtoPage(pageable);
+	}
+	
+	/**
+	 * 회원 검색
+	 * · 예) /members/search?username=member1&teamName=teamA&ageGoe=10&ageLoe=30&page=0&size=10&sort=age,desc
+	 * · 값을 넘기지 않은 조건(빈 문자열 포함)은 where 절에 포함하지 않는다.
+	 * · sort 는 id, username, age, teamName 만 가능하다. 그 외 속성은 400 응답
+	 */
+	@GetMapping("/members/search")
+	public Page<MemberDto> search(MemberSearchCondition condition, @PageableDefault(size = 20) Pageable pageable){
+		return memberRepository.search(condition, pageable);
+	}
+	
+	@ExceptionHandler(UnsupportedSortPropertyException.class)
+	public ProblemDetail unsupportedSort(UnsupportedSortPropertyException e) {
+		return ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage());
 	}
 	
 	/**
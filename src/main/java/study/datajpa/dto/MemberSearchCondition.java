@@ -0,0 +1,15 @@
+package study.datajpa.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * 회원 검색 조건. 값이 null 인 조건(문자열은 빈 값 포함)은 where 절에 포함하지 않는다.
+ */
+@Getter @Setter
+public class MemberSearchCondition {
+	private String username;
+	private String teamName;
+	private Integer ageGoe;	// 나이 >=
+	private Integer ageLoe;	// 나이 <=
+}
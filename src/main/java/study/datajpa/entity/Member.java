@@ -1,12 +1,18 @@
 package study.datajpa.entity;
 
+import java.time.LocalDateTime;
+
 import org.springframework.data.jpa.repository.EntityGraph;
 
 import jakarta.persistence.Column;
+import jakarta.persistence.ColumnResult;
+import jakarta.persistence.ConstructorResult;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.NamedAttributeNode;
@@ -14,19 +20,38 @@ import jakarta.persistence.NamedEntityGraph;
 import jakarta.persistence.NamedNativeQuery;
 import jakarta.persistence.NamedQueries;
 import jakarta.persistence.NamedQuery;
+import jakarta.persistence.SqlResultSetMapping;
+import jakarta.persistence.Table;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import study.datajpa.cache.QueryCacheEvictListener;
+import study.datajpa.dto.MemberDto;
 
 @Entity
+// 리포지토리 메소드 조회 조건 인덱스 (RepositoryIndexAnalyzer 로 점검)
+// findByUsername..., findByUsernameAndAgeGreaterThan / findPageByAge(정렬 username) / findSkipLockedByAgeOrderByIdAsc / team 조인
+@Table(indexes = {
+		@Index(name = "idx_member_username_age", columnList = "username, age"),
+		@Index(name = "idx_member_age_username", columnList = "age, username"),
+		@Index(name = "idx_member_age_id", columnList = "age, member_id"),
+		@Index(name = "idx_member_team_id", columnList = "team_id")})
+@EntityListeners(QueryCacheEvictListener.class)
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "username", "age"})
 // @NamedQuery 장점 - 애플리케이션 로딩 시점에 해당 쿼리를 한번 파싱해 본다. 따라서 문법 오류가 있는경우 오류를 알려주고, 애플리케이션 로딩 되지 않음.
 @NamedQuery(name = "Member.findByUsername", query = "select m from Member m where m.username = :username")
 @NamedEntityGraph(name = "Member.all", attributeNodes = @NamedAttributeNode("team")) // Member 조회 시 team은 무조건 조회하는 설정. 해당 name을 @EntityGraph 에서 호출하여 사용 가능
+// 네이티브 쿼리 결과를 MemberDto 생성자로 바로 매핑한다. 인터페이스 프로젝션처럼 row 마다 Tuple 기반 프록시를 만들지 않는다. 컬럼은 alias 이름으로 매칭.
+@SqlResultSetMapping(name = "MemberDtoMapping", classes = @ConstructorResult(targetClass = MemberDto.class, columns = {
+		@ColumnResult(name = "id", type = Long.class),
+		@ColumnResult(name = "username", type = String.class),
+		@ColumnResult(name = "team_name", type = String.class)}))
+@NamedNativeQuery(name = "Member.findNativeMemberDto", resultSetMapping = "MemberDtoMapping",
+		query = "select m.member_id as id, m.username as username, t.name as team_name from member m left join team t on m.team_id = t.teamm_id order by m.member_id")
 public class Member extends BaseEntity{
 
 	@Id @GeneratedValue
@@ -35,6 +60,15 @@ public class Member extends BaseEntity{
 	private String username;
 	private int age;
 	
+	/**
+	 * 마지막 접속 시간 - MemberLastSeenWriteBehind 가 모아서 JDBC 배치로만 update 한다.
+	 * JPA 가 update 할 때 오래된 값으로 덮어쓰지 않도록 insertable, updatable = false
+	 * setter 로 바꿔도 DB 에 반영되지 않으므로 setter 를 만들지 않는다. (변경은 MemberLastSeenWriteBehind.touch)
+	 */
+	@Column(insertable = false, updatable = false)
+	@Setter(AccessLevel.NONE)
+	private LocalDateTime lastSeenDate;
+	
 	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name = "team_id")
 	private Team team;
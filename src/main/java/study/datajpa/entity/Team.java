@@ -3,18 +3,27 @@ package study.datajpa.entity;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.hibernate.annotations.LazyCollection;
+import org.hibernate.annotations.LazyCollectionOption;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.Table;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import study.datajpa.cache.QueryCacheEvictListener;
 
 @Entity
+@Table(indexes = @Index(name = "idx_team_name", columnList = "name")) // 회원 검색의 팀 이름 조건
+@EntityListeners(QueryCacheEvictListener.class)
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "name"})
@@ -24,7 +33,14 @@ public class Team {
 	private long id;
 	private String name;
 	
+	/**
+	 * LazyCollectionOption.EXTRA
+	 * · 컬렉션 전체를 초기화하지 않고 size(), contains() 는 count / exists SQL 로 처리한다.
+	 * · mappedBy(연관관계의 주인이 아닌 쪽) 컬렉션의 add() 는 초기화 없이 큐에 쌓였다가 초기화 시점에 반영된다.
+	 * · 따라서 Member.changeTeam() 에서 team.getMembers().add(this) 를 호출해도 팀의 모든 회원을 로딩하지 않는다.
+	 */
 	@OneToMany(mappedBy = "team")
+	@LazyCollection(LazyCollectionOption.EXTRA)
 	private List<Member> members = new ArrayList<>();
 
 	public Team(String name) {
@@ -0,0 +1,98 @@
+package study.datajpa.repository;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Repository;
+
+import jakarta.annotation.PreDestroy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.Member;
+
+/**
+ * 회원 조회 리액티브(Mono / Flux) 버전
+ * 
+ * · JPA(JDBC)는 블로킹 API 이므로 호출 스레드(이벤트 루프)에서 실행하면 안 된다.
+ *   스레드 수와 대기 작업 수가 제한된 전용 스케줄러(boundedElastic)에서 MemberRepository 를 호출한다.
+ *   대기 작업이 queue-size 를 넘으면 RejectedExecutionException 으로 바로 실패한다. (무한정 쌓이지 않음)
+ * · 엔티티 매핑과 쿼리는 MemberRepository 의 것을 그대로 사용한다. 반환된 엔티티는 준영속 상태이므로 
+ *   구독자가 사용할 연관 엔티티(team)는 fetch 조인(@EntityGraph)으로 미리 조회한다. 스케줄러 스레드 밖에서는 지연 로딩할 수 없다.
+ * · streamDtoByAge 는 구독자가 요청(request)한 만큼만 다음 구간을 조회한다. 전체 결과를 한 번에 메모리에 올리지 않는다.
+ */
+@Repository
+public class MemberReactiveRepository {
+
+	private final MemberRepository memberRepository;
+	private final Scheduler jpaScheduler;
+	
+	public MemberReactiveRepository(MemberRepository memberRepository,
+			@Value("${datajpa.reactive.threads:10}") int threads,
+			@Value("${datajpa.reactive.queue-size:1000}") int queueSize) {
+		this.memberRepository = memberRepository;
+		this.jpaScheduler = Schedulers.newBoundedElastic(threads, queueSize, "member-jpa");
+	}
+	
+	public Flux<Member> findByUsername(String username) {
+		return blocking(() -> memberRepository.findEntityGraphByUsername(username))
+				.flatMapIterable(members -> members);
+	}
+	
+	public Mono<Member> findOptionalByUsername(String username) {
+		return blocking(() -> memberRepository.findWithTeamByUsername(username).orElse(null));
+	}
+	
+	public Mono<Page<Member>> findPageByAge(int age, Pageable pageable) {
+		return blocking(() -> memberRepository.findWithTeamByAge(age, pageable));
+	}
+	
+	public Flux<UsernameOnly> findProjectionsByUsername(String username) {
+		return blocking(() -> memberRepository.findProjectionsByUsername(username))
+				.flatMapIterable(projections -> projections);
+	}
+	
+	public Flux<MemberDto> findMemberDto() {
+		return blocking(() -> memberRepository.findMemberDto())
+				.flatMapIterable(dtos -> dtos);
+	}
+	
+	/**
+	 * 나이로 회원 전체를 chunkSize 단위로 나누어 조회한다. (커서 기반 findDtoByAgeAfterId - 팀 이름 포함)
+	 * · generate 는 하위에서 요청(request)이 올 때만 다음 구간을 조회한다. subscribeOn 으로 요청 처리(조회)는 jpaScheduler 에서 실행된다.
+	 * · flatMapIterable(prefetch 1) 은 현재 구간을 모두 내보낸 뒤에야 다음 구간 하나를 요청한다. (최대 한 구간만 미리 조회)
+	 * · 조회한 구간이 chunkSize 보다 적으면 마지막 구간이다.
+	 */
+	public Flux<MemberDto> streamDtoByAge(int age, int chunkSize) {
+		return Flux.<List<MemberDto>, Long>generate(() -> 0L, (lastId, sink) -> {
+					List<MemberDto> chunk = memberRepository.findDtoByAgeAfterId(age, lastId, PageRequest.ofSize(chunkSize));
+					if (chunk.isEmpty()) {
+						sink.complete();
+						return lastId;
+					}
+					
+					sink.next(chunk);
+					if (chunk.size() < chunkSize) {
+						sink.complete();
+					}
+					return chunk.get(chunk.size() - 1).getId();
+				})
+				.subscribeOn(jpaScheduler)
+				.flatMapIterable(chunk -> chunk, 1);
+	}
+	
+	@PreDestroy
+	public void shutdown() {
+		jpaScheduler.dispose();
+	}
+	
+	private <T> Mono<T> blocking(Callable<T> call) {
+		return Mono.fromCallable(call).subscribeOn(jpaScheduler);
+	}
+}
@@ -4,6 +4,8 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Slice;
@@ -19,6 +21,8 @@ import jakarta.persistence.LockModeType;
 import jakarta.persistence.NamedEntityGraph;
 import jakarta.persistence.QueryHint;
 import net.bytebuddy.description.type.TypeDescription.Generic;
+import study.datajpa.cache.QueryCacheEvictor;
+import study.datajpa.cache.QueryCacheNames;
 import study.datajpa.dto.MemberDto;
 import study.datajpa.dto.UsernameOnlyDto;
 import study.datajpa.entity.Member;
@@ -38,12 +42,37 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
 	@Query("select m from Member m where m.username = :username and m.age = :age")
 	List<Member> findUser(@Param("username") String username, @Param("age") int age);
 	
+	/**
+	 * @Cacheable 조회 결과 캐시 (Caffeine - application.yml 의 spring.cache.caffeine.spec 참고)
+	 * Member / Team 이 변경되면 QueryCacheEvictListener 가 커밋 후에 해당 엔티티에 의존하는 캐시만 비운다.
+	 * condition - 현재 트랜잭션에 커밋 전 변경이 있으면 캐시를 사용하지 않고 DB 를 조회한다.
+	 */
+	@Cacheable(cacheNames = QueryCacheNames.MEMBER_USERNAMES, condition = QueryCacheEvictor.CACHEABLE)
 	@Query("select m.username from Member m")
 	List<String> findUsernameList();
 	
+	@Cacheable(cacheNames = QueryCacheNames.MEMBER_DTO, condition = QueryCacheEvictor.CACHEABLE)
 	@Query("select new study.datajpa.dto.MemberDto(m.id, m.username, t.name) from Member m join m.team t")
 	List<MemberDto> findMemberDto();
 	
+	/**
+	 * DTO 페이징 - 필요한 컬럼(m.id, m.username, t.name)만 조회해서 MemberDto 생성자로 바로 만든다.
+	 * · 엔티티를 조회한 뒤 page.map(MemberDto::new) 하면 모든 컬럼을 읽고 영속성 컨텍스트에 스냅샷까지 만든다.
+	 * · 메소드 이름 기반 DTO 프로젝션은 연관 엔티티 속성(team.name)을 생성자 파라미터로 받을 수 없어서 JPQL new 로 작성한다.
+	 * · count 쿼리는 team 조인 없이 회원 수만 센다. (left join 이므로 건수가 같다)
+	 */
+	@Query(value = "select new study.datajpa.dto.MemberDto(m.id, m.username, t.name) from Member m left join m.team t",
+			countQuery = "select count(m) from Member m")
+	Page<MemberDto> findMemberDtoPage(Pageable pageable);
+	
+	/**
+	 * 커서(keyset) DTO 조회 - lastId 다음 회원을 id 순으로 pageable.size 건 조회한다. (MemberReactiveRepository.streamDtoByAge)
+	 * 팀 이름까지 생성자 new 로 조회하므로 엔티티, 지연 로딩이 없다.
+	 */
+	@Query("select new study.datajpa.dto.MemberDto(m.id, m.username, t.name) from Member m left join m.team t"
+			+ " where m.age = :age and m.id > :lastId order by m.id")
+	List<MemberDto> findDtoByAgeAfterId(@Param("age") int age, @Param("lastId") long lastId, Pageable pageable);
+	
 	@Query("select m from Member m where m.username in :names")
 	List<Member> findByNames(@Param("names") Collection<String> names);
 	
@@ -69,11 +98,19 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
 	 * 
 	 * value애 작성한 쿼리의 결과 값이 null인 경우. countQuery 안나감  
 	 * 
+	 * countQuery 에도 value 와 같은 where 조건을 걸어야 전체 건수가 맞다. (team 은 ToOne 이라 조인 없이 count 가능)
+	 * ToOne fetch 조인은 row 수가 늘지 않으므로 limit 이 SQL 에 그대로 적용된다.
+	 * 컬렉션 fetch 조인 페이징은 TeamRepository.findPageWithMembers 처럼 id 페이징 후 in 조회로 나눈다.
 	 */  
 	@Query(value = "select m from Member m left join fetch m.team t where m.age = :age", 
-			countQuery = "select count(m) from Member m")
+			countQuery = "select count(m) from Member m where m.age = :age")
 	Page<Member> findCountQueryByAge(@Param("age") int age, Pageable pageable);
 
+	/**
+	 * 엔티티를 반환하는 조회는 캐시하지 않는다.
+	 * 캐시된 Member 인스턴스를 여러 스레드, 트랜잭션이 같이 사용하게 되어 한쪽의 변경(롤백된 변경 포함)이 다른 쪽에 보이고, 
+	 * 준영속 인스턴스의 변경은 저장되지 않으며 지연 로딩(team)도 할 수 없다. 캐시가 필요하면 DTO 를 조회하는 메소드에 적용한다.
+	 */
 	List<Member> findTop3ByAge(int age);
 	
 	/**
@@ -83,6 +120,7 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
 			· org.hibernate.hql.internal.QueryExecutionRequestException: Not supported for DML operations
 	 */
 	@Modifying(clearAutomatically = true)
+	@CacheEvict(cacheNames = {QueryCacheNames.MEMBER_USERNAMES, QueryCacheNames.MEMBER_DTO}, allEntries = true)
 	@Query("update Member m set m.age = m.age + 1 where m.age >= :age")
 	int bulkAgePlus(@Param("age") int age);
 
@@ -120,6 +158,15 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
 	@EntityGraph("Member.all")
 	List<Member> findEntityGraphByUsername(String username);
 	
+	/**
+	 * team 을 같이 조회 - 트랜잭션 밖(다른 스레드)에서 준영속 Member 의 team 을 사용할 때 (MemberReactiveRepository)
+	 */
+	@EntityGraph("Member.all")
+	Optional<Member> findWithTeamByUsername(String username);
+	
+	@EntityGraph("Member.all")
+	Page<Member> findWithTeamByAge(int age, Pageable pageable);
+	
 	/**
 	 * 
 	 */
@@ -129,6 +176,23 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
 	@Lock(LockModeType.OPTIMISTIC)
 	List<Member> findLockByUsername(String username);
 	
+	/**
+	 * 작업 큐 - 다른 트랜잭션이 잠근 row 는 건너뛰고 잠기지 않은 row 를 최대 pageable.size 건 잠근다.
+	 * · select ... for update skip locked (jakarta.persistence.lock.timeout = -2 : LockOptions.SKIP_LOCKED)
+	 * · 여러 워커가 같은 row 를 기다리지 않고 서로 다른 row 를 가져가므로 워커 수만큼 처리량이 늘어난다. (MemberWorkQueue)
+	 * · skip locked 를 지원하지 않는 DB(H2 등)에서는 일반 for update 로 실행된다.
+	 */
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+	List<Member> findSkipLockedByAgeOrderByIdAsc(int age, Pageable pageable);
+	
+	/**
+	 * 비관적 잠금 + 잠금 대기 시간 제한(ms). 시간이 지나면 LockTimeoutException(PessimisticLockingFailureException)
+	 */
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "3000"))
+	List<Member> findLockTimeoutByUsername(String username);
+	
 	/**
 	 * 
 	 *  org.springframework.data.jpa.repository.QueryHints 어노테이션을 사용 
@@ -156,7 +220,7 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
 	/**
 	 * native query projections
 	 */
-	@Query(value = "select m.member_id as id, m.username, t.name as teamName from member m left join team t", 
+	@Query(value = "select m.member_id as id, m.username, t.name as teamName from member m left join team t on m.team_id = t.teamm_id", 
 			countQuery = "select count(*) from member", nativeQuery = true)
 	Page<MemberProjections> findByNativeQuery(Pageable pageable);
 }
@@ -1,10 +1,57 @@
 package study.datajpa.repository;
 
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberSearchCondition;
 import study.datajpa.entity.Member;
 
 public interface MemberRepositoryCustom {
 
 	public List<Member> findMemberCustom();
+	
+	/**
+	 * StatelessSession 조회 (읽기 전용)
+	 * · 1차 캐시, 스냅샷, 변경 감지가 없다. 반환된 Member 는 준영속 상태이며 team 은 fetch 조인으로 미리 조회한다.
+	 * · 현재 트랜잭션(없으면 읽기 전용 트랜잭션)의 커넥션을 같이 사용한다.
+	 */
+	public List<Member> findStatelessByUsername(String username);
+	
+	public List<Member> findAllStateless();
+	
+	/**
+	 * 커서(keyset) 기반 Slice - 무한 스크롤용
+	 * · lastId(이전 Slice 의 마지막 회원 id) 다음부터 size 건을 id 순으로 조회한다. 첫 요청은 lastId 를 null 로 넘긴다.
+	 * · offset 을 쓰지 않으므로 앞 페이지 row 를 건너뛰며 읽지 않는다.
+	 * · size 는 1 이상이어야 한다. (쿼리 실행 전에 확인)
+	 */
+	public Slice<Member> findSliceByAgeAfterId(int age, Long lastId, int size);
+	
+	/**
+	 * 네이티브 쿼리 DTO 조회 - Member 의 @NamedNativeQuery + @SqlResultSetMapping(MemberDtoMapping) 사용
+	 */
+	public List<MemberDto> findNativeMemberDto(Pageable pageable);
+	
+	/**
+	 * 여러 id 를 한 번에 조회 (findById 를 id 마다 반복 호출하지 않는다)
+	 * · 영속성 컨텍스트(1차 캐시), 2차 캐시에 있는 회원은 DB 를 조회하지 않는다.
+	 * · 나머지 id 는 정해진 크기 단위로 나누어 in 쿼리로 조회한다.
+	 * · 결과는 ids 순서를 유지하며 존재하지 않는 id 는 결과에서 빠진다.
+	 */
+	public List<Member> findAllByIdBatched(Collection<Long> ids);
+	
+	/**
+	 * 동적 검색 - 조건(username, teamName, 나이 범위) 조합마다 메소드를 만들지 않고 MemberSearchCondition 으로 조회한다.
+	 */
+	public List<MemberDto> search(MemberSearchCondition condition);
+	
+	/**
+	 * 동적 검색 + 페이징 - 정렬은 id, username, age, teamName 만 가능하고 그 외 속성은 UnsupportedSortPropertyException
+	 */
+	public Page<MemberDto> search(MemberSearchCondition condition, Pageable pageable);
 }
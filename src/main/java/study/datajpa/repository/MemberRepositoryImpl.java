@@ -1,14 +1,55 @@
 package study.datajpa.repository;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.hibernate.Session;
+import org.hibernate.StatelessSession;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
 
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
 import lombok.RequiredArgsConstructor;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberSearchCondition;
 import study.datajpa.entity.Member;
 
 @RequiredArgsConstructor
 public class MemberRepositoryImpl implements MemberRepositoryCustom {
 
+	// findAllByIdBatched 의 in 쿼리 하나에 들어가는 최대 id 수
+	private static final int MULTI_LOAD_BATCH_SIZE = 500;
+	
+	// search 조건 조합(shape) 별 JPQL. 조건 값이 달라도 조합이 같으면 같은 JPQL 문자열을 재사용한다.
+	private static final Map<Integer, String> SEARCH_JPQL = new ConcurrentHashMap<>();
+	private static final Map<Integer, String> SEARCH_COUNT_JPQL = new ConcurrentHashMap<>();
+	
+	// 검색 정렬에 허용하는 속성 (요청 파라미터가 JPQL 에 그대로 들어가지 않도록 화이트리스트로 관리)
+	private static final Map<String, String> SEARCH_SORT_PATHS = Map.of(
+			"id", "m.id", 
+			"username", "m.username", 
+			"age", "m.age", 
+			"teamName", "t.name");
+	
+	private static final int USERNAME = 1;
+	private static final int TEAM_NAME = 1 << 1;
+	private static final int AGE_GOE = 1 << 2;
+	private static final int AGE_LOE = 1 << 3;
+	
 	private final EntityManager em;
 	
 	@Override
@@ -16,5 +57,183 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
 		return em.createQuery("select m from Member m", Member.class).getResultList();
 	}
 
+	@Override
+	@Transactional(readOnly = true)
+	public List<Member> findStatelessByUsername(String username) {
+		return stateless(session -> session
+				.createQuery("select m from Member m left join fetch m.team where m.username = :username", Member.class)
+				.setParameter("username", username)
+				.getResultList());
+	}
+	
+	@Override
+	@Transactional(readOnly = true)
+	public List<Member> findAllStateless() {
+		return stateless(session -> session
+				.createQuery("select m from Member m left join fetch m.team", Member.class)
+				.getResultList());
+	}
+	
+	/**
+	 * findSliceByAge 는 size + 1 건의 Member 엔티티를 조회해서 hasNext 를 판단한다.
+	 * 여기서는 1. (age, id) 조건으로 id 만 size + 1 건 조회해서 hasNext 를 판단하고 
+	 * 2. 실제로 반환할 size 건만 in 쿼리로 엔티티를 조회한다. 다음 페이지의 엔티티는 만들지 않는다.
+	 */
+	@Override
+	public Slice<Member> findSliceByAgeAfterId(int age, Long lastId, int size) {
+		Assert.isTrue(size > 0, "size must be greater than 0");
+		List<Long> ids = em.createQuery("select m.id from Member m where m.age = :age and m.id > :lastId order by m.id", Long.class)
+				.setParameter("age", age)
+				.setParameter("lastId", lastId == null ? 0L : lastId)
+				.setMaxResults(size + 1)
+				.getResultList();
+		
+		boolean hasNext = ids.size() > size;
+		if (hasNext) {
+			ids = ids.subList(0, size);
+		}
+		
+		List<Member> content = ids.isEmpty() ? List.of() :
+			em.createQuery("select m from Member m where m.id in :ids order by m.id", Member.class)
+				.setParameter("ids", ids)
+				.getResultList();
+		return new SliceImpl<>(content, PageRequest.ofSize(size), hasNext);
+	}
+	
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<MemberDto> findNativeMemberDto(Pageable pageable) {
+		return em.createNamedQuery("Member.findNativeMemberDto")
+				.setFirstResult((int) pageable.getOffset())
+				.setMaxResults(pageable.getPageSize())
+				.getResultList();
+	}
+	
+	/**
+	 * 하이버네이트 MultiIdentifierLoadAccess 사용
+	 * · enableSessionCheck - 영속성 컨텍스트에 이미 있는 엔티티는 그대로 사용
+	 * · enableOrderedReturn - 넘긴 id 순서대로 반환 (없는 id 는 null 이라 제거)
+	 * · withBatchSize - in 쿼리 하나에 들어가는 id 수 제한
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public List<Member> findAllByIdBatched(Collection<Long> ids) {
+		return em.unwrap(Session.class)
+				.byMultipleIds(Member.class)
+				.enableSessionCheck(true)
+				.enableOrderedReturn(true)
+				.withBatchSize(MULTI_LOAD_BATCH_SIZE)
+				.multiLoad(new ArrayList<>(ids))
+				.stream()
+				.filter(Objects::nonNull)
+				.toList();
+	}
 	
+	/**
+	 * 동적 검색
+	 * 
+	 * · 조건이 있는 것만 where 절에 넣어서 JPQL 을 만든다.
+	 * · 하이버네이트는 JPQL 문자열을 키로 파싱 결과(쿼리 플랜)를 캐시한다. (hibernate.query.plan_cache_max_size)
+	 *   조건 조합마다 항상 같은 문자열을 만들고 값은 파라미터로만 바인딩하므로, 조합이 같으면 파싱/SQL 변환을 다시 하지 않는다.
+	 *   Criteria API 로 만들면 요청마다 criteria 트리를 새로 만들고 변환해야 해서 이 캐시를 사용하지 못한다.
+	 */
+	@Override
+	public List<MemberDto> search(MemberSearchCondition condition) {
+		int shape = searchShape(condition);
+		String jpql = SEARCH_JPQL.computeIfAbsent(shape, MemberRepositoryImpl::searchJpql) + " order by m.id";
+		return bindSearchParameters(em.createQuery(jpql, MemberDto.class), shape, condition).getResultList();
+	}
+	
+	/**
+	 * 동적 검색 + 페이징 (/members/search)
+	 * 
+	 * · 항상 limit/offset 을 걸어서 조회하므로 테이블 전체를 읽어 메모리에서 자르는 일은 없다.
+	 * · count 쿼리는 팀 이름 조건이 있을 때만 team 을 조인한다.
+	 * · 첫 페이지에서 content 가 size 보다 적으면 count 쿼리를 생략한다. (PageableExecutionUtils)
+	 */
+	@Override
+	public Page<MemberDto> search(MemberSearchCondition condition, Pageable pageable) {
+		int shape = searchShape(condition);
+		String jpql = SEARCH_JPQL.computeIfAbsent(shape, MemberRepositoryImpl::searchJpql) + searchOrderBy(pageable.getSort());
+		List<MemberDto> content = bindSearchParameters(em.createQuery(jpql, MemberDto.class), shape, condition)
+				.setFirstResult((int) pageable.getOffset())
+				.setMaxResults(pageable.getPageSize())
+				.getResultList();
+		
+		String countJpql = SEARCH_COUNT_JPQL.computeIfAbsent(shape, MemberRepositoryImpl::searchCountJpql);
+		return PageableExecutionUtils.getPage(content, pageable, 
+				() -> bindSearchParameters(em.createQuery(countJpql, Long.class), shape, condition).getSingleResult());
+	}
+	
+	/**
+	 * 문자열 조건은 빈 값("", 공백)도 조건 없음으로 본다. (/members/search?username= 은 username 이 "" 로 바인딩된다)
+	 */
+	private static int searchShape(MemberSearchCondition condition) {
+		int shape = 0;
+		if (StringUtils.hasText(condition.getUsername())) shape |= USERNAME;
+		if (StringUtils.hasText(condition.getTeamName())) shape |= TEAM_NAME;
+		if (condition.getAgeGoe() != null) shape |= AGE_GOE;
+		if (condition.getAgeLoe() != null) shape |= AGE_LOE;
+		return shape;
+	}
+	
+	private static String searchJpql(int shape) {
+		return "select new study.datajpa.dto.MemberDto(m.id, m.username, t.name) from Member m left join m.team t"
+				+ searchWhere(shape);
+	}
+	
+	private static String searchCountJpql(int shape) {
+		String join = (shape & TEAM_NAME) != 0 ? " join m.team t" : "";
+		return "select count(m) from Member m" + join + searchWhere(shape);
+	}
+	
+	private static String searchOrderBy(Sort sort) {
+		List<String> orders = new ArrayList<>();
+		for (Sort.Order order : sort) {
+			String path = SEARCH_SORT_PATHS.get(order.getProperty());
+			if (path == null) {
+				throw new UnsupportedSortPropertyException(order.getProperty());
+			}
+			orders.add(path + (order.isAscending() ? " asc" : " desc"));
+		}
+		orders.add("m.id"); // 같은 값이 있어도 페이지 간 순서가 바뀌지 않도록
+		return " order by " + String.join(", ", orders);
+	}
+	
+	/**
+	 * 선택도가 높고 인덱스를 탈 수 있는 동등 조건(username, team name)을 먼저, 범위 조건(age)을 뒤에 둔다.
+	 */
+	private static String searchWhere(int shape) {
+		List<String> predicates = new ArrayList<>();
+		if ((shape & USERNAME) != 0) predicates.add("m.username = :username");
+		if ((shape & TEAM_NAME) != 0) predicates.add("t.name = :teamName");
+		if ((shape & AGE_GOE) != 0) predicates.add("m.age >= :ageGoe");
+		if ((shape & AGE_LOE) != 0) predicates.add("m.age <= :ageLoe");
+		return predicates.isEmpty() ? "" : " where " + String.join(" and ", predicates);
+	}
+	
+	private static <T> TypedQuery<T> bindSearchParameters(TypedQuery<T> query, int shape, MemberSearchCondition condition) {
+		if ((shape & USERNAME) != 0) query.setParameter("username", condition.getUsername());
+		if ((shape & TEAM_NAME) != 0) query.setParameter("teamName", condition.getTeamName());
+		if ((shape & AGE_GOE) != 0) query.setParameter("ageGoe", condition.getAgeGoe());
+		if ((shape & AGE_LOE) != 0) query.setParameter("ageLoe", condition.getAgeLoe());
+		return query;
+	}
+	
+	/**
+	 * StatelessSession
+	 * · 영속성 컨텍스트가 없는 세션. 조회한 엔티티를 관리하지 않으므로 스냅샷을 만들지 않고 flush 시 변경 감지도 하지 않는다.
+	 * · 지연 로딩이 불가능하기 때문에 연관 엔티티는 fetch 조인으로 미리 조회해야 한다.
+	 * · 현재 트랜잭션의 커넥션으로 연다. openStatelessSession() 은 커넥션 풀에서 커넥션을 하나 더 가져오므로 
+	 *   트랜잭션이 커넥션을 잡은 채 기다리게 되어 부하 상황에서 풀이 고갈될 수 있다. (connection-timeout 후 실패)
+	 *   넘겨준 커넥션은 StatelessSession 을 닫아도 닫히지 않는다.
+	 */
+	private <T> T stateless(Function<StatelessSession, T> work) {
+		Session session = em.unwrap(Session.class);
+		return session.doReturningWork(connection -> {
+			try (StatelessSession statelessSession = session.getSessionFactory().openStatelessSession(connection)) {
+				return work.apply(statelessSession);
+			}
+		});
+	}
 }
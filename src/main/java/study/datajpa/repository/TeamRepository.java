@@ -1,9 +1,47 @@
 package study.datajpa.repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import study.datajpa.entity.Team;
 
 public interface TeamRepository extends JpaRepository<Team, Long> {
 
+	/**
+	 * 컬렉션 fetch 조인 + 페이징
+	 * 
+	 * · Team 과 members 를 fetch 조인(@EntityGraph 포함)하고 Pageable 을 넘기면 
+	 *   SQL 에 limit 이 빠지고 모든 row 를 조회한 뒤 메모리에서 페이징한다. (HHH90003004 경고)
+	 * · 그래서 두 단계로 나누어 조회한다.
+	 *   1. 해당 페이지의 Team id 만 페이징 조회 (limit/offset, count 쿼리 정상 동작)
+	 *   2. 조회한 id 들로 in 쿼리 한 번에 members 까지 fetch 조인
+	 * · 2번 결과는 1번의 id 순서(정렬)대로 다시 맞춰 준다.
+	 */
+	default Page<Team> findPageWithMembers(Pageable pageable) {
+		Page<Long> idPage = findIdPage(pageable);
+		if (idPage.isEmpty()) {
+			return idPage.map(id -> null);
+		}
+		
+		Map<Long, Team> teams = findWithMembersByIdIn(idPage.getContent()).stream()
+				.collect(Collectors.toMap(Team::getId, Function.identity()));
+		return idPage.map(teams::get);
+	}
+	
+	@Query(value = "select t.id from Team t", countQuery = "select count(t) from Team t")
+	Page<Long> findIdPage(Pageable pageable);
+	
+	@EntityGraph(attributePaths = {"members"})
+	@Query("select t from Team t where t.id in :ids")
+	List<Team> findWithMembersByIdIn(@Param("ids") Collection<Long> ids);
 }
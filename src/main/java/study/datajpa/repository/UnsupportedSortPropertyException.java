@@ -0,0 +1,20 @@
+package study.datajpa.repository;
+
+import lombok.Getter;
+
+/**
+ * 검색 정렬에 허용하지 않은 속성을 요청한 경우
+ * 
+ * · IllegalArgumentException 은 리파지토리 프록시의 예외 변환에서 InvalidDataAccessApiUsageException 으로 바뀌므로
+ *   컨트롤러가 잘못된 요청(400)으로 구분할 수 있도록 별도 예외로 던진다.
+ */
+@Getter
+public class UnsupportedSortPropertyException extends RuntimeException {
+
+	private final String property;
+	
+	public UnsupportedSortPropertyException(String property) {
+		super("unsupported sort property: " + property);
+		this.property = property;
+	}
+}
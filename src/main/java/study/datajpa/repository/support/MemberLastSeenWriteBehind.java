@@ -0,0 +1,99 @@
+package study.datajpa.repository.support;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 회원 마지막 접속 시간 쓰기 지연(write-behind)
+ * 
+ * · 자주 발생하지만 즉시 반영될 필요가 없는 변경(last seen)을 호출한 트랜잭션에서 flush 하지 않고 메모리에 모아둔다.
+ * · 같은 회원 id 는 가장 최근 값 하나만 남긴다. (coalescing)
+ * · flush-interval 마다 JDBC 배치 update 로 한 번에 반영한다. 엔티티 변경 감지, auditing(lastModifiedDate) 을 거치지 않는다.
+ * · 버퍼가 capacity 에 도달하면 touch() 를 호출한 스레드가 직접 flush 한다. (backpressure - 메모리가 무한히 늘지 않는다)
+ * · 애플리케이션 종료 시(@PreDestroy) 남은 변경을 모두 반영한다.
+ * · DB 반영이 실패하면 다음 flush 에서 다시 시도한다. 단, 애플리케이션이 비정상 종료되면 버퍼의 변경은 유실될 수 있다.
+ */
+@Slf4j
+@Component
+public class MemberLastSeenWriteBehind {
+
+	private static final String UPDATE_SQL = "update member set last_seen_date = ? where member_id = ?";
+	
+	private final ConcurrentHashMap<Long, LocalDateTime> buffer = new ConcurrentHashMap<>();
+	private final ReentrantLock flushLock = new ReentrantLock();
+	
+	private final JdbcTemplate jdbcTemplate;
+	private final int capacity;
+	private final int batchSize;
+	
+	public MemberLastSeenWriteBehind(JdbcTemplate jdbcTemplate,
+			@Value("${datajpa.write-behind.capacity:10000}") int capacity,
+			@Value("${datajpa.write-behind.batch-size:500}") int batchSize) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.capacity = capacity;
+		this.batchSize = batchSize;
+	}
+	
+	public void touch(Long memberId) {
+		touch(memberId, LocalDateTime.now());
+	}
+	
+	public void touch(Long memberId, LocalDateTime seenAt) {
+		buffer.merge(memberId, seenAt, MemberLastSeenWriteBehind::latest);
+		if (buffer.size() >= capacity) {
+			flush();
+		}
+	}
+	
+	public int pendingCount() {
+		return buffer.size();
+	}
+	
+	@Scheduled(fixedDelayString = "${datajpa.write-behind.flush-interval:1000}")
+	@PreDestroy
+	public void flush() {
+		flushLock.lock();
+		try {
+			if (buffer.isEmpty()) {
+				return;
+			}
+			
+			List<Object[]> rows = new ArrayList<>(buffer.size());
+			for (Long memberId : buffer.keySet()) {
+				LocalDateTime seenAt = buffer.remove(memberId);
+				if (seenAt != null) {
+					rows.add(new Object[] {seenAt, memberId});
+				}
+			}
+			
+			for (int from = 0; from < rows.size(); from += batchSize) {
+				List<Object[]> batch = rows.subList(from, Math.min(from + batchSize, rows.size()));
+				try {
+					jdbcTemplate.batchUpdate(UPDATE_SQL, batch);
+				} catch (RuntimeException e) {
+					log.error("last seen write-behind flush failed ({} rows), retry on next flush", batch.size(), e);
+					for (Object[] row : batch) {
+						buffer.merge((Long) row[1], (LocalDateTime) row[0], MemberLastSeenWriteBehind::latest);
+					}
+				}
+			}
+		} finally {
+			flushLock.unlock();
+		}
+	}
+	
+	private static LocalDateTime latest(LocalDateTime a, LocalDateTime b) {
+		return a.isAfter(b) ? a : b;
+	}
+}
@@ -0,0 +1,135 @@
+package study.datajpa.repository.support;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import study.datajpa.entity.Member;
+
+/**
+ * 회원 전체 병렬 스캔
+ * 
+ * · MemberRepository.findAll() 은 모든 회원을 한 스레드에서 한 번에 메모리에 올린다.
+ * · 회원 id 범위(min ~ max)를 chunk-size 단위 구간으로 나누고 구간마다 별도 스레드, 별도 트랜잭션(= 별도 EntityManager)으로 조회한다.
+ *   구간 조회가 끝나면 트랜잭션과 함께 영속성 컨텍스트도 정리되므로 메모리에는 동시에 parallelism 개 구간만 올라간다.
+ * · consumer 는 여러 스레드에서 동시에 호출되므로 thread-safe 해야 한다. 넘어오는 Member 는 준영속 상태이며 team 은 fetch 조인으로 조회되어 있다.
+ * · 구간이 끝날 때마다 진행 상황(ScanProgress)을 progress 로 넘긴다. 한 번에 하나씩, 완료 순서대로 호출되므로 마지막 값이 전체 결과와 같다.
+ */
+@Slf4j
+@Component
+public class MemberParallelScanner {
+
+	@PersistenceContext
+	private EntityManager em;
+	
+	private final TransactionTemplate readOnlyTx;
+	private final int parallelism;
+	private final int chunkSize;
+	
+	public MemberParallelScanner(PlatformTransactionManager transactionManager,
+			@Value("${datajpa.scan.parallelism:4}") int parallelism,
+			@Value("${datajpa.scan.chunk-size:1000}") int chunkSize) {
+		this.readOnlyTx = new TransactionTemplate(transactionManager);
+		this.readOnlyTx.setReadOnly(true);
+		this.parallelism = parallelism;
+		this.chunkSize = chunkSize;
+	}
+	
+	public ScanResult scan(Consumer<Member> consumer) {
+		return scan(parallelism, chunkSize, consumer);
+	}
+	
+	public ScanResult scan(int parallelism, int chunkSize, Consumer<Member> consumer) {
+		return scan(parallelism, chunkSize, consumer, MemberParallelScanner::logProgress);
+	}
+	
+	public ScanResult scan(int parallelism, int chunkSize, Consumer<Member> consumer, Consumer<ScanProgress> progress) {
+		long start = System.nanoTime();
+		Object[] bounds = readOnlyTx.execute(status -> 
+			em.createQuery("select min(m.id), max(m.id) from Member m", Object[].class).getSingleResult());
+		if (bounds == null || bounds[0] == null) {
+			return new ScanResult(0, 0, Duration.ofNanos(System.nanoTime() - start));
+		}
+		
+		long minId = (Long) bounds[0];
+		long maxId = (Long) bounds[1];
+		int ranges = (int) ((maxId - minId) / chunkSize + 1);
+		
+		Object progressLock = new Object();
+		long[] rows = new long[1];
+		int[] completedRanges = new int[1];
+		ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+		try {
+			List<Future<?>> futures = new ArrayList<>(ranges);
+			for (long from = minId; from <= maxId; from += chunkSize) {
+				long rangeFrom = from;
+				long rangeTo = from + chunkSize;
+				futures.add(executor.submit(() -> {
+					long count = scanRange(rangeFrom, rangeTo, consumer);
+					synchronized (progressLock) {
+						rows[0] += count;
+						completedRanges[0]++;
+						progress.accept(new ScanProgress(completedRanges[0], ranges, rows[0]));
+					}
+				}));
+			}
+			
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("member scan interrupted", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("member scan failed", e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+		
+		ScanResult result = new ScanResult(rows[0], ranges, Duration.ofNanos(System.nanoTime() - start));
+		log.info("member scan finished: {} rows, {} ranges, {} ms, {} rows/s", 
+				result.rows(), result.ranges(), result.elapsed().toMillis(), (long) result.rowsPerSecond());
+		return result;
+	}
+	
+	private static void logProgress(ScanProgress progress) {
+		if (log.isDebugEnabled()) {
+			log.debug("member scan {}/{} ranges, {} rows", progress.completedRanges(), progress.ranges(), progress.rows());
+		}
+	}
+	
+	private long scanRange(long fromId, long toId, Consumer<Member> consumer) {
+		return readOnlyTx.execute(status -> {
+			List<Member> members = em.createQuery("select m from Member m left join fetch m.team where m.id >= :from and m.id < :to order by m.id", Member.class)
+					.setParameter("from", fromId)
+					.setParameter("to", toId)
+					.getResultList();
+			members.forEach(consumer);
+			return (long) members.size();
+		});
+	}
+	
+	public record ScanProgress(int completedRanges, int ranges, long rows) {
+	}
+	
+	public record ScanResult(long rows, int ranges, Duration elapsed) {
+		
+		public double rowsPerSecond() {
+			long millis = Math.max(1, elapsed.toMillis());
+			return rows * 1000.0 / millis;
+		}
+	}
+}
@@ -0,0 +1,86 @@
+package study.datajpa.repository.support;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+/**
+ * Member row 를 작업 큐로 사용하는 다중 워커 처리
+ * 
+ * · 워커마다 트랜잭션을 열고 findSkipLockedByAgeOrderByIdAsc 로 잠기지 않은 회원을 batchSize 건 잠근 뒤 handler 로 처리하고 커밋한다.
+ *   커밋하면 잠금이 풀린다. 더 이상 가져올 회원이 없으면 워커가 종료된다.
+ * · handler 는 처리한 회원이 다시 조회되지 않도록 조건(age)을 바꿔야 한다. (ex. member.setAge(다음 상태))
+ *   같은 워커가 이미 처리한 회원을 다시 가져오면 무한 반복을 막기 위해 IllegalStateException 을 던진다.
+ * · handler 에서 예외가 나면 해당 배치는 롤백되어 잠금이 풀리고 다른 워커가 다시 가져갈 수 있다.
+ */
+@Component
+public class MemberWorkQueue {
+
+	private final MemberRepository memberRepository;
+	private final TransactionTemplate transactionTemplate;
+	
+	public MemberWorkQueue(MemberRepository memberRepository, PlatformTransactionManager transactionManager) {
+		this.memberRepository = memberRepository;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+	}
+	
+	/**
+	 * @return 처리한 회원 수
+	 */
+	public long process(int age, int batchSize, int workers, Consumer<Member> handler) {
+		ExecutorService executor = Executors.newFixedThreadPool(workers);
+		try {
+			List<Future<Long>> futures = new ArrayList<>(workers);
+			for (int i = 0; i < workers; i++) {
+				futures.add(executor.submit(() -> work(age, batchSize, handler)));
+			}
+			
+			long processed = 0;
+			for (Future<Long> future : futures) {
+				processed += future.get();
+			}
+			return processed;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("member work queue interrupted", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("member work queue failed", e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+	
+	private long work(int age, int batchSize, Consumer<Member> handler) {
+		Set<Long> processedIds = new HashSet<>();
+		while (true) {
+			Integer claimed = transactionTemplate.execute(status -> {
+				List<Member> members = memberRepository.findSkipLockedByAgeOrderByIdAsc(age, PageRequest.of(0, batchSize));
+				for (Member member : members) {
+					if (!processedIds.add(member.getId())) {
+						throw new IllegalStateException("member " + member.getId() + " claimed again - handler must move it out of the queue");
+					}
+					handler.accept(member);
+				}
+				return members.size();
+			});
+			
+			if (claimed == null || claimed == 0) {
+				return processedIds.size();
+			}
+		}
+	}
+}
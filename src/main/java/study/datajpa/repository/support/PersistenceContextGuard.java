@@ -0,0 +1,114 @@
+package study.datajpa.repository.support;
+
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 영속성 컨텍스트 크기 감시
+ * 
+ * · 하나의 트랜잭션 안에서 엔티티를 계속 조회/저장하면 영속성 컨텍스트(1차 캐시)가 끝없이 커진다.
+ * · flush 시점의 변경 감지(dirty checking)는 관리 중인 모든 엔티티의 스냅샷을 비교하므로 O(n) 이다.
+ *   따라서 배치성 작업에서는 엔티티 수가 늘어날수록 점점 느려진다.
+ * 
+ * · 리포지토리 메소드 호출이 끝날 때 마다 현재 EntityManager 가 관리하는 엔티티 수를 확인하고
+ *   max-managed-entities 를 넘으면 해당 리포지토리 메소드를 로그로 남긴다.
+ *   WARN 은 트랜잭션마다 처음 넘었을 때 한 번만 남긴다. (이후 호출은 DEBUG) 
+ *   엔티티 10만 건을 다루는 배치에서 호출마다 WARN 을 남기면 로그 자체가 지연의 원인이 된다.
+ * · overflow-action 이 FLUSH_CLEAR 이면 em.flush(); em.clear(); 까지 수행한다.
+ *   (clear 이후에는 기존에 조회한 엔티티가 모두 준영속 상태가 되므로 배치 작업에서만 사용하자.)
+ */
+@Slf4j
+@Component
+public class PersistenceContextGuard implements RepositoryMethodInvocationListener {
+
+	public enum OverflowAction {
+		LOG, FLUSH_CLEAR
+	}
+	
+	// 현재 트랜잭션에서 이미 WARN 을 남겼는지 표시하는 리소스 키
+	private static final Object OVERFLOW_WARNED_KEY = new Object();
+	
+	@PersistenceContext
+	private EntityManager em;
+	
+	private final int maxManagedEntities;
+	private final OverflowAction overflowAction;
+	
+	public PersistenceContextGuard(
+			@Value("${datajpa.persistence-context.max-managed-entities:10000}") int maxManagedEntities,
+			@Value("${datajpa.persistence-context.overflow-action:LOG}") OverflowAction overflowAction) {
+		this.maxManagedEntities = maxManagedEntities;
+		this.overflowAction = overflowAction;
+	}
+	
+	@Override
+	public void afterInvocation(RepositoryMethodInvocation invocation) {
+		// 트랜잭션 밖에서는 리포지토리 메소드 마다 EntityManager 가 새로 만들어지므로 감시할 필요가 없다.
+		if (maxManagedEntities <= 0 || !TransactionSynchronizationManager.isActualTransactionActive()) {
+			return;
+		}
+		
+		int managedEntities = managedEntityCount();
+		if (managedEntities <= maxManagedEntities) {
+			return;
+		}
+		
+		String method = invocation.getRepositoryInterface().getSimpleName() + "." + invocation.getMethod().getName();
+		if (firstOverflowInTransaction()) {
+			log.warn("persistence context overflow: {} managed entities (max {}) after {}, not logged again in this transaction",
+					managedEntities, maxManagedEntities, method);
+		} else if (log.isDebugEnabled()) {
+			log.debug("persistence context overflow: {} managed entities (max {}) after {}", managedEntities, maxManagedEntities, method);
+		}
+		
+		if (overflowAction == OverflowAction.FLUSH_CLEAR) {
+			em.flush();
+			em.clear();
+		}
+	}
+	
+	public int managedEntityCount() {
+		return em.unwrap(SessionImplementor.class)
+				.getPersistenceContextInternal()
+				.getNumberOfManagedEntities();
+	}
+	
+	private static boolean firstOverflowInTransaction() {
+		if (TransactionSynchronizationManager.hasResource(OVERFLOW_WARNED_KEY)) {
+			return false;
+		}
+		OverflowWarned warned = new OverflowWarned();
+		TransactionSynchronizationManager.bindResource(OVERFLOW_WARNED_KEY, warned);
+		TransactionSynchronizationManager.registerSynchronization(warned);
+		return true;
+	}
+	
+	/**
+	 * 트랜잭션이 끝나면 표시를 지운다. 다른 트랜잭션(REQUIRES_NEW)으로 보류되는 동안에는 바인딩을 풀어둔다.
+	 */
+	private static class OverflowWarned implements TransactionSynchronization {
+		
+		@Override
+		public void suspend() {
+			TransactionSynchronizationManager.unbindResource(OVERFLOW_WARNED_KEY);
+		}
+		
+		@Override
+		public void resume() {
+			TransactionSynchronizationManager.bindResource(OVERFLOW_WARNED_KEY, this);
+		}
+		
+		@Override
+		public void afterCompletion(int status) {
+			TransactionSynchronizationManager.unbindResourceIfPossible(OVERFLOW_WARNED_KEY);
+		}
+	}
+}
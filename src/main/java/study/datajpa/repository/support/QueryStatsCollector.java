@@ -0,0 +1,130 @@
+package study.datajpa.repository.support;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * 리포지토리 메소드 별 수행 통계 + 느린 실행 기록
+ * 
+ * · 메소드 마다 최근 window-size 번의 수행 시간을 보관하고 count, 평균, p95, p99, 최대값을 계산한다.
+ * · slow-threshold 이상 걸린 실행 중 가장 느린 slowest-size 건을 보관한다.
+ *   파라미터 값은 RepositoryMethodInvocation 에서 전달되지 않으므로 기록되지 않는다. (개인정보 노출 없음)
+ * · QueryStatsEndpoint(/actuator/querystats) 로 조회한다.
+ */
+@Component
+public class QueryStatsCollector implements RepositoryMethodInvocationListener {
+
+	private final Map<String, MethodStats> stats = new ConcurrentHashMap<>();
+	private final PriorityQueue<SlowExecution> slowest = new PriorityQueue<>(Comparator.comparingLong(SlowExecution::durationMicros));
+	
+	private final int windowSize;
+	private final int slowestSize;
+	private final long slowThresholdMicros;
+	
+	public QueryStatsCollector(
+			@Value("${datajpa.query-stats.window-size:1024}") int windowSize,
+			@Value("${datajpa.query-stats.slowest-size:20}") int slowestSize,
+			@Value("${datajpa.query-stats.slow-threshold-ms:100}") long slowThresholdMillis) {
+		this.windowSize = windowSize;
+		this.slowestSize = slowestSize;
+		this.slowThresholdMicros = TimeUnit.MILLISECONDS.toMicros(slowThresholdMillis);
+	}
+	
+	@Override
+	public void afterInvocation(RepositoryMethodInvocation invocation) {
+		String method = invocation.getRepositoryInterface().getSimpleName() + "." + invocation.getMethod().getName();
+		long micros = invocation.getDuration(TimeUnit.MICROSECONDS);
+		boolean error = invocation.getResult().getState() == RepositoryMethodInvocationResult.State.ERROR;
+		record(method, micros, error);
+	}
+	
+	void record(String method, long micros, boolean error) {
+		stats.computeIfAbsent(method, key -> new MethodStats(windowSize)).record(micros, error);
+		
+		if (micros >= slowThresholdMicros) {
+			synchronized (slowest) {
+				slowest.offer(new SlowExecution(method, micros, error, LocalDateTime.now()));
+				if (slowest.size() > slowestSize) {
+					slowest.poll(); // 가장 빠른 것을 버린다
+				}
+			}
+		}
+	}
+	
+	public List<MethodSummary> summaries() {
+		return stats.entrySet().stream()
+				.map(entry -> entry.getValue().summary(entry.getKey()))
+				.sorted(Comparator.comparingLong(MethodSummary::p99Micros).reversed())
+				.toList();
+	}
+	
+	public List<SlowExecution> slowest() {
+		synchronized (slowest) {
+			List<SlowExecution> result = new ArrayList<>(slowest);
+			result.sort(Comparator.comparingLong(SlowExecution::durationMicros).reversed());
+			return result;
+		}
+	}
+	
+	public void reset() {
+		stats.clear();
+		synchronized (slowest) {
+			slowest.clear();
+		}
+	}
+	
+	public record MethodSummary(String method, long count, long errors, long meanMicros, long p95Micros, long p99Micros, long maxMicros) {
+	}
+	
+	public record SlowExecution(String method, long durationMicros, boolean error, LocalDateTime executedAt) {
+	}
+	
+	/**
+	 * 최근 window 개의 수행 시간을 원형 버퍼로 보관
+	 */
+	private static class MethodStats {
+		private final long[] window;
+		private long count;
+		private long errors;
+		
+		MethodStats(int windowSize) {
+			this.window = new long[windowSize];
+		}
+		
+		synchronized void record(long micros, boolean error) {
+			window[(int) (count % window.length)] = micros;
+			count++;
+			if (error) {
+				errors++;
+			}
+		}
+		
+		synchronized MethodSummary summary(String method) {
+			int size = (int) Math.min(count, window.length);
+			long[] sorted = Arrays.copyOf(window, size);
+			Arrays.sort(sorted);
+			long mean = size == 0 ? 0 : (long) Arrays.stream(sorted).average().orElse(0);
+			return new MethodSummary(method, count, errors, mean, percentile(sorted, 0.95), percentile(sorted, 0.99), 
+					size == 0 ? 0 : sorted[size - 1]);
+		}
+		
+		private static long percentile(long[] sorted, double percentile) {
+			if (sorted.length == 0) {
+				return 0;
+			}
+			int index = (int) Math.ceil(percentile * sorted.length) - 1;
+			return sorted[Math.max(0, index)];
+		}
+	}
+}
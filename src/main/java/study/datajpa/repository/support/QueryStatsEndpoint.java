@@ -0,0 +1,76 @@
+package study.datajpa.repository.support;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * 쿼리 수행 통계 조회 - GET /actuator/querystats, 초기화 - DELETE /actuator/querystats
+ * 
+ * · methods : 리포지토리 메소드 별 count, 평균, p95, p99, 최대 수행 시간(us) - p99 가 큰 순서
+ * · slowest : 가장 느렸던 실행 (파라미터 값 제외)
+ * · queries : 하이버네이트 통계(hibernate.generate_statistics)의 JPQL/SQL 별 실행 횟수, 평균/최대 시간(ms), 반환 row 수
+ */
+@Component
+@Endpoint(id = "querystats")
+public class QueryStatsEndpoint {
+
+	private final QueryStatsCollector queryStatsCollector;
+	private final EntityManagerFactory entityManagerFactory;
+	
+	public QueryStatsEndpoint(QueryStatsCollector queryStatsCollector, EntityManagerFactory entityManagerFactory) {
+		this.queryStatsCollector = queryStatsCollector;
+		this.entityManagerFactory = entityManagerFactory;
+	}
+	
+	@ReadOperation
+	public Map<String, Object> stats() {
+		Statistics statistics = statistics();
+		Map<String, Object> result = new LinkedHashMap<>();
+		result.put("methods", queryStatsCollector.summaries());
+		result.put("slowest", queryStatsCollector.slowest());
+		if (statistics.isStatisticsEnabled()) {
+			result.put("queries", queries(statistics));
+		}
+		return result;
+	}
+	
+	@DeleteOperation
+	public void reset() {
+		queryStatsCollector.reset();
+		statistics().clear();
+	}
+	
+	// 백그라운드 부트스트랩 중에 EntityManagerFactory 를 기다리지 않도록 조회 시점에 꺼낸다
+	private Statistics statistics() {
+		return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+	
+	private List<Map<String, Object>> queries(Statistics statistics) {
+		return Arrays.stream(statistics.getQueries())
+				.map(query -> {
+					QueryStatistics queryStatistics = statistics.getQueryStatistics(query);
+					Map<String, Object> row = new LinkedHashMap<>();
+					row.put("query", query);
+					row.put("count", queryStatistics.getExecutionCount());
+					row.put("meanMillis", queryStatistics.getExecutionAvgTime());
+					row.put("maxMillis", queryStatistics.getExecutionMaxTime());
+					row.put("rows", queryStatistics.getExecutionRowCount());
+					return row;
+				})
+				.sorted(Comparator.comparingLong((Map<String, Object> row) -> (Long) row.get("maxMillis")).reversed())
+				.toList();
+	}
+}
@@ -0,0 +1,297 @@
+package study.datajpa.repository.support;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.BeanFactoryUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.config.ConstructorArgumentValues.ValueHolder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.core.support.AbstractRepositoryMetadata;
+import org.springframework.data.repository.core.support.RepositoryFactoryInformation;
+import org.springframework.data.repository.query.parser.Part;
+import org.springframework.data.repository.query.parser.PartTree;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.OneToOne;
+import jakarta.persistence.Table;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 리포지토리 쿼리 메소드 기반 인덱스 점검
+ * 
+ * · 애플리케이션 로딩이 끝나면 스프링 데이터 리포지토리의 메소드 이름 쿼리(ex. findByUsernameAndAgeGreaterThan)를 PartTree 로 분석한다.
+ *   동등 조건 컬럼 -> 범위 조건 컬럼 -> 정렬 컬럼 순으로 복합 인덱스 후보를 만든다.
+ * · ToOne 연관관계의 조인 컬럼(ex. member.team_id)도 후보에 넣는다.
+ * · DB 메타데이터(DatabaseMetaData.getIndexInfo)의 실제 인덱스와 비교해서, 후보 컬럼으로 시작하는 인덱스가 없으면 
+ *   create index 구문을 로그로 남기고 script-output 이 지정되어 있으면 마이그레이션 스크립트 파일로 저장한다.
+ * · @Query 로 직접 작성한 쿼리와 Pageable 로 넘어오는 동적 정렬은 분석하지 않는다.
+ * · 리포지토리 빈을 생성하지 않고 빈 정의의 리포지토리 인터페이스만 분석한다. (lazy 부트스트랩에서 리포지토리 초기화를 앞당기지 않는다)
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "datajpa.index-analyzer.enabled", havingValue = "true", matchIfMissing = true)
+public class RepositoryIndexAnalyzer {
+
+	private final ConfigurableListableBeanFactory beanFactory;
+	private final DataSource dataSource;
+	private final String scriptOutput;
+	
+	public RepositoryIndexAnalyzer(ConfigurableListableBeanFactory beanFactory, DataSource dataSource,
+			@Value("${datajpa.index-analyzer.script-output:}") String scriptOutput) {
+		this.beanFactory = beanFactory;
+		this.dataSource = dataSource;
+		this.scriptOutput = scriptOutput;
+	}
+	
+	@EventListener(ApplicationReadyEvent.class)
+	public void onReady() throws IOException {
+		List<String> statements = analyze();
+		if (statements.isEmpty()) {
+			log.info("index analyzer: all repository query method columns are indexed");
+			return;
+		}
+		
+		statements.forEach(statement -> log.warn("index analyzer: missing index -> {}", statement));
+		if (StringUtils.hasText(scriptOutput)) {
+			Files.write(Path.of(scriptOutput), statements);
+			log.warn("index analyzer: migration script written to {}", scriptOutput);
+		}
+	}
+	
+	/**
+	 * @return 없는 인덱스의 create index 구문
+	 */
+	public List<String> analyze() {
+		Map<Class<?>, Set<List<String>>> candidatesByDomainType = new LinkedHashMap<>();
+		for (Class<?> repositoryInterface : repositoryInterfaces()) {
+			Class<?> domainType = AbstractRepositoryMetadata.getMetadata(repositoryInterface).getDomainType();
+			candidatesByDomainType.computeIfAbsent(domainType, type -> new LinkedHashSet<>())
+					.addAll(candidates(repositoryInterface, domainType));
+		}
+		
+		List<String> statements = new ArrayList<>();
+		try (Connection connection = dataSource.getConnection()) {
+			DatabaseMetaData metaData = connection.getMetaData();
+			for (Map.Entry<Class<?>, Set<List<String>>> entry : candidatesByDomainType.entrySet()) {
+				String table = tableName(entry.getKey());
+				statements.addAll(missingIndexes(table, entry.getValue(), indexes(metaData, table)));
+			}
+		} catch (SQLException e) {
+			throw new IllegalStateException("index analyzer failed to read database metadata", e);
+		}
+		return statements;
+	}
+	
+	/**
+	 * 리포지토리 인터페이스 별 인덱스 후보 (메소드 이름 쿼리 조건/정렬 컬럼 + ToOne 조인 컬럼)
+	 */
+	static Set<List<String>> candidates(Class<?> repositoryInterface, Class<?> domainType) {
+		Set<List<String>> candidates = new LinkedHashSet<>();
+		Arrays.stream(repositoryInterface.getMethods())
+				.filter(RepositoryIndexAnalyzer::isQueryMethod)
+				.sorted(Comparator.comparing(Method::getName))
+				.map(method -> candidateColumns(method, domainType))
+				.filter(columns -> !columns.isEmpty())
+				.forEach(candidates::add);
+		candidates.addAll(joinColumns(domainType));
+		return candidates;
+	}
+	
+	/**
+	 * 후보 컬럼으로 시작하는 인덱스가 없는 후보의 create index 구문
+	 */
+	static List<String> missingIndexes(String table, Collection<List<String>> candidates, List<List<String>> indexes) {
+		List<String> statements = new ArrayList<>();
+		for (List<String> candidate : candidates) {
+			if (indexes.stream().noneMatch(index -> startsWith(index, candidate))) {
+				statements.add("create index idx_" + table + "_" + String.join("_", candidate) 
+						+ " on " + table + " (" + String.join(", ", candidate) + ");");
+			}
+		}
+		return statements;
+	}
+	
+	/**
+	 * 스프링 데이터 리포지토리 인터페이스
+	 * · new Repositories(applicationContext) 는 리포지토리 팩토리 빈을 모두 생성하므로 사용하지 않는다.
+	 * · 팩토리 빈(JpaRepositoryFactoryBean)을 생성하지 않고 빈 정의로 리포지토리 타입을 알아낸다. 
+	 *   (이미 생성되었거나 AOT 로 타입이 지정된 경우 getType, 아니면 생성자 인자로 넘기는 리포지토리 인터페이스 이름)
+	 */
+	private Set<Class<?>> repositoryInterfaces() {
+		Set<Class<?>> interfaces = new LinkedHashSet<>();
+		for (String name : beanFactory.getBeanNamesForType(RepositoryFactoryInformation.class, false, false)) {
+			String beanName = BeanFactoryUtils.transformedBeanName(name);
+			Class<?> type = beanFactory.getType(beanName, false);
+			if (type == null || !Repository.class.isAssignableFrom(type)) {
+				type = constructorArgumentType(beanName);
+			}
+			if (type != null && type.isInterface() && Repository.class.isAssignableFrom(type)) {
+				interfaces.add(type);
+			}
+		}
+		return interfaces;
+	}
+	
+	private Class<?> constructorArgumentType(String beanName) {
+		ValueHolder holder = beanFactory.getMergedBeanDefinition(beanName).getConstructorArgumentValues().getIndexedArgumentValue(0, null);
+		Object value = holder == null ? null : holder.getValue();
+		if (value instanceof Class<?> type) {
+			return type;
+		}
+		if (value instanceof String className && ClassUtils.isPresent(className, beanFactory.getBeanClassLoader())) {
+			return ClassUtils.resolveClassName(className, beanFactory.getBeanClassLoader());
+		}
+		return null;
+	}
+	
+	/**
+	 * 리포지토리 인터페이스에 선언한 메소드만 분석한다.
+	 * 스프링 데이터 기본 메소드(JpaRepository 등)와 커스텀 구현 메소드(MemberRepositoryCustom 등 Repository 가 아닌 인터페이스)는 제외
+	 */
+	private static boolean isQueryMethod(Method method) {
+		Class<?> declaringClass = method.getDeclaringClass();
+		return !method.isDefault() && !method.isBridge() && !Modifier.isStatic(method.getModifiers())
+				&& Repository.class.isAssignableFrom(declaringClass)
+				&& !declaringClass.getPackageName().startsWith("org.springframework.data");
+	}
+	
+	private static List<String> candidateColumns(Method method, Class<?> domainType) {
+		if (AnnotatedElementUtils.hasAnnotation(method, Query.class)) {
+			return List.of();
+		}
+		
+		PartTree tree;
+		try {
+			tree = new PartTree(method.getName(), domainType);
+		} catch (RuntimeException e) { // 메소드 이름 쿼리가 아닌 경우 (NamedQuery 등)
+			return List.of();
+		}
+		
+		Set<String> equality = new LinkedHashSet<>();
+		Set<String> range = new LinkedHashSet<>();
+		for (PartTree.OrPart orPart : tree) {
+			for (Part part : orPart) {
+				String column = columnName(part.getProperty().toDotPath(), domainType);
+				if (part.getType() == Part.Type.SIMPLE_PROPERTY || part.getType() == Part.Type.IN) {
+					equality.add(column);
+				} else {
+					range.add(column);
+				}
+			}
+		}
+		
+		Set<String> columns = new LinkedHashSet<>(equality);
+		columns.addAll(range);
+		for (Sort.Order order : tree.getSort()) {
+			columns.add(columnName(order.getProperty(), domainType));
+		}
+		return new ArrayList<>(columns);
+	}
+	
+	private static List<List<String>> joinColumns(Class<?> domainType) {
+		List<List<String>> columns = new ArrayList<>();
+		for (Class<?> type = domainType; type != Object.class; type = type.getSuperclass()) {
+			for (Field field : type.getDeclaredFields()) {
+				if (isToOne(field)) {
+					columns.add(List.of(joinColumnName(field)));
+				}
+			}
+		}
+		return columns;
+	}
+	
+	/**
+	 * 인덱스 이름 별 컬럼 목록 (ORDINAL_POSITION 순서)
+	 */
+	private List<List<String>> indexes(DatabaseMetaData metaData, String table) throws SQLException {
+		Map<String, Map<Short, String>> indexes = new TreeMap<>();
+		for (String name : List.of(table, table.toUpperCase(Locale.ROOT))) {
+			try (ResultSet rs = metaData.getIndexInfo(null, null, name, false, true)) {
+				while (rs.next()) {
+					String indexName = rs.getString("INDEX_NAME");
+					String column = rs.getString("COLUMN_NAME");
+					if (indexName != null && column != null) {
+						indexes.computeIfAbsent(indexName, key -> new TreeMap<>())
+								.put(rs.getShort("ORDINAL_POSITION"), column.toLowerCase(Locale.ROOT));
+					}
+				}
+			}
+		}
+		return indexes.values().stream().map(columns -> (List<String>) new ArrayList<>(columns.values())).toList();
+	}
+	
+	private static boolean startsWith(List<String> index, List<String> candidate) {
+		return index.size() >= candidate.size() && index.subList(0, candidate.size()).equals(candidate);
+	}
+	
+	private static String columnName(String property, Class<?> domainType) {
+		String head = property.contains(".") ? property.substring(0, property.indexOf('.')) : property;
+		for (Class<?> type = domainType; type != Object.class; type = type.getSuperclass()) {
+			try {
+				Field field = type.getDeclaredField(head);
+				if (isToOne(field)) { // team.name 같은 연관 엔티티 조건은 조인 컬럼(team_id)으로 본다
+					return joinColumnName(field);
+				}
+				Column column = field.getAnnotation(Column.class);
+				return column != null && StringUtils.hasText(column.name()) ? column.name().toLowerCase(Locale.ROOT) : snakeCase(head);
+			} catch (NoSuchFieldException e) {
+				// 상위 클래스(@MappedSuperclass)에서 찾는다
+			}
+		}
+		return snakeCase(head);
+	}
+	
+	private static boolean isToOne(Field field) {
+		return field.isAnnotationPresent(ManyToOne.class) || field.isAnnotationPresent(OneToOne.class);
+	}
+	
+	private static String joinColumnName(Field field) {
+		JoinColumn joinColumn = field.getAnnotation(JoinColumn.class);
+		return joinColumn != null && StringUtils.hasText(joinColumn.name()) 
+				? joinColumn.name().toLowerCase(Locale.ROOT) : snakeCase(field.getName()) + "_id";
+	}
+	
+	private static String tableName(Class<?> domainType) {
+		Table table = domainType.getAnnotation(Table.class);
+		return table != null && StringUtils.hasText(table.name()) ? table.name() : snakeCase(domainType.getSimpleName());
+	}
+	
+	// 스프링 부트 기본 네이밍 전략(CamelCaseToUnderscoresNamingStrategy)과 같은 규칙
+	private static String snakeCase(String name) {
+		return name.replaceAll("([a-z0-9])([A-Z])", "$1_$2").toLowerCase(Locale.ROOT);
+	}
+}
@@ -0,0 +1,43 @@
+package study.datajpa.repository.support;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.stereotype.Component;
+
+import study.datajpa.cache.CacheEvictBroadcastListener;
+
+/**
+ * 스프링 데이터 JPA 가 만드는 리포지토리(MemberRepository 등)에 RepositoryMethodInvocationListener 를 등록한다.
+ * 
+ * · 리포지토리 구현체는 RepositoryFactoryBeanSupport 가 만들기 때문에 팩토리 빈이 초기화 되기 전에 customizer 를 추가해 준다.
+ * · 리스너 빈은 BeanPostProcessor 가 너무 일찍 초기화 하지 않도록 ObjectProvider 로 늦게 꺼낸다.
+ */
+@Component
+public class RepositoryInvocationListenerRegistrar implements BeanPostProcessor {
+
+	private final ObjectProvider<PersistenceContextGuard> persistenceContextGuard;
+	private final ObjectProvider<CacheEvictBroadcastListener> cacheEvictBroadcastListener;
+	private final ObjectProvider<QueryStatsCollector> queryStatsCollector;
+	
+	public RepositoryInvocationListenerRegistrar(ObjectProvider<PersistenceContextGuard> persistenceContextGuard,
+			ObjectProvider<CacheEvictBroadcastListener> cacheEvictBroadcastListener,
+			ObjectProvider<QueryStatsCollector> queryStatsCollector) {
+		this.persistenceContextGuard = persistenceContextGuard;
+		this.cacheEvictBroadcastListener = cacheEvictBroadcastListener;
+		this.queryStatsCollector = queryStatsCollector;
+	}
+	
+	@Override
+	public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+		if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+			factoryBean.addRepositoryFactoryCustomizer(factory -> {
+				persistenceContextGuard.ifAvailable(factory::addInvocationListener);
+				cacheEvictBroadcastListener.ifAvailable(factory::addInvocationListener);
+				queryStatsCollector.ifAvailable(factory::addInvocationListener);
+			});
+		}
+		return bean;
+	}
+}
@@ -0,0 +1,28 @@
+-- ddl-auto: create 가 만들던 스키마 (Member, Team, Item)
+create sequence if not exists member_seq start with 1 increment by 50;
+create sequence if not exists team_seq start with 1 increment by 50;
+
+create table if not exists team (
+    teamm_id bigint not null,
+    name varchar(255),
+    primary key (teamm_id)
+);
+
+create table if not exists member (
+    member_id bigint not null,
+    create_date timestamp(6),
+    last_modified_date timestamp(6),
+    create_by varchar(255),
+    last_modified_by varchar(255),
+    age integer not null,
+    username varchar(255),
+    team_id bigint,
+    primary key (member_id),
+    constraint fk_member_team foreign key (team_id) references team (teamm_id)
+);
+
+create table if not exists item (
+    id varchar(255) not null,
+    create_date timestamp(6),
+    primary key (id)
+);
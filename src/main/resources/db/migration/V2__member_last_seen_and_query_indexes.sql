@@ -0,0 +1,7 @@
+-- 기존 데이터를 유지하면서 컬럼, 인덱스 추가 (MemberLastSeenWriteBehind, RepositoryIndexAnalyzer)
+alter table member add column if not exists last_seen_date timestamp(6);
+
+create index if not exists idx_member_username_age on member (username, age);
+create index if not exists idx_member_age_username on member (age, username);
+create index if not exists idx_member_team_id on member (team_id);
+create index if not exists idx_team_name on team (name);
@@ -0,0 +1,2 @@
+-- 작업 큐 조회(MemberRepository.findSkipLockedByAgeOrderByIdAsc) - age 조건 + id 정렬을 인덱스 순서로 읽고 batch 크기만큼에서 멈춘다
+create index if not exists idx_member_age_id on member (age, member_id);
@@ -0,0 +1,70 @@
+package study.datajpa.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+/**
+ * LoopbackInvalidationTransport 는 property 로 켰을 때만, 다른 transport 빈이 없을 때만 등록된다.
+ */
+class CacheInvalidationAutoConfigurationTest {
+
+	ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+			.withConfiguration(AutoConfigurations.of(CacheInvalidationAutoConfiguration.class));
+	
+	@Test
+	void noTransportByDefault() {
+		contextRunner.run(context -> assertThat(context).doesNotHaveBean(InvalidationTransport.class));
+	}
+	
+	@Test
+	void loopbackWhenEnabled() {
+		contextRunner.withPropertyValues("datajpa.cache.invalidation.transport=loopback")
+				.run(context -> assertThat(context).getBean(InvalidationTransport.class).isInstanceOf(LoopbackInvalidationTransport.class));
+	}
+	
+	@Test
+	void userTransportWins() {
+		contextRunner.withPropertyValues("datajpa.cache.invalidation.transport=loopback")
+				.withBean("brokerTransport", InvalidationTransport.class, BrokerTransport::new)
+				.run(context -> assertThat(context).getBean(InvalidationTransport.class).isInstanceOf(BrokerTransport.class));
+	}
+	
+	/**
+	 * 컨텍스트마다 다른 채널 - 한 컨텍스트에서 보낸 메시지가 다른 컨텍스트로 가지 않는다.
+	 */
+	@Test
+	void loopbackScopedToContext() {
+		ApplicationContextRunner loopback = contextRunner.withPropertyValues("datajpa.cache.invalidation.transport=loopback");
+		loopback.run(context1 -> loopback.run(context2 -> {
+			int[] received = new int[1];
+			context2.getBean(InvalidationTransport.class).subscribe(message -> received[0]++);
+			
+			context1.getBean(InvalidationTransport.class).publish(new InvalidationMessage("node1", Set.of(QueryCacheNames.MEMBER_DTO)));
+			assertThat(received[0]).isZero();
+			
+			context2.getBean(InvalidationTransport.class).publish(new InvalidationMessage("node2", Set.of(QueryCacheNames.MEMBER_DTO)));
+			assertThat(received[0]).isEqualTo(1);
+		}));
+	}
+	
+	static class BrokerTransport implements InvalidationTransport {
+		
+		@Override
+		public void publish(InvalidationMessage message) {
+		}
+		
+		@Override
+		public void subscribe(Consumer<InvalidationMessage> listener) {
+		}
+		
+		@Override
+		public void unsubscribe(Consumer<InvalidationMessage> listener) {
+		}
+	}
+}
@@ -0,0 +1,65 @@
+package study.datajpa.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+/**
+ * 같은 JVM 안에서 LoopbackInvalidationTransport 로 두 노드를 흉내내서 캐시 무효화 전파를 확인한다.
+ */
+class CacheInvalidationBusTest {
+
+	ConcurrentMapCacheManager cacheManager1 = new ConcurrentMapCacheManager(QueryCacheNames.MEMBER_DTO, QueryCacheNames.MEMBER_USERNAMES);
+	ConcurrentMapCacheManager cacheManager2 = new ConcurrentMapCacheManager(QueryCacheNames.MEMBER_DTO, QueryCacheNames.MEMBER_USERNAMES);
+	
+	LoopbackInvalidationTransport transport = new LoopbackInvalidationTransport();
+	CacheInvalidationBus node1 = new CacheInvalidationBus(cacheManager1, transport);
+	CacheInvalidationBus node2 = new CacheInvalidationBus(cacheManager2, transport);
+	
+	@BeforeEach
+	void start() {
+		node1.start();
+		node2.start();
+	}
+	
+	@AfterEach
+	void stop() {
+		node1.stop();
+		node2.stop();
+	}
+	
+	@Test
+	void invalidateOtherNode() {
+		cacheManager1.getCache(QueryCacheNames.MEMBER_DTO).put("key", "node1");
+		cacheManager2.getCache(QueryCacheNames.MEMBER_DTO).put("key", "node2");
+		cacheManager2.getCache(QueryCacheNames.MEMBER_USERNAMES).put("key", "node2");
+		
+		node1.publish(QueryCacheNames.MEMBER_DTO);
+		node1.publish(QueryCacheNames.MEMBER_DTO); // 같은 캐시는 한 번만 전송
+		
+		// flush 전에는 전송되지 않는다
+		assertThat(cacheManager2.getCache(QueryCacheNames.MEMBER_DTO).get("key")).isNotNull();
+		
+		node1.flush();
+		
+		assertThat(cacheManager2.getCache(QueryCacheNames.MEMBER_DTO).get("key")).isNull();
+		assertThat(cacheManager2.getCache(QueryCacheNames.MEMBER_USERNAMES).get("key")).isNotNull();
+		// 자기 자신이 보낸 메시지는 무시
+		assertThat(cacheManager1.getCache(QueryCacheNames.MEMBER_DTO).get("key")).isNotNull();
+	}
+	
+	/**
+	 * transport 빈이 없으면 로컬 캐시만 사용한다. publish / flush 는 아무것도 하지 않는다.
+	 */
+	@Test
+	void withoutTransport() {
+		CacheInvalidationBus localOnly = new CacheInvalidationBus(cacheManager1, null);
+		localOnly.start();
+		localOnly.publish(QueryCacheNames.MEMBER_DTO);
+		localOnly.flush();
+		localOnly.stop();
+	}
+}
@@ -0,0 +1,127 @@
+package study.datajpa.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.hibernate.engine.spi.ActionQueue;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache.ValueWrapper;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+/**
+ * 엔티티 변경에 의한 조회 결과 캐시 비우기 - 커밋 후에만 비우고, 커밋 전 변경이 있는 트랜잭션은 캐시를 사용하지 않는다.
+ * 커밋 시점을 확인해야 하므로 테스트 메소드에 @Transactional 을 걸지 않고 TransactionTemplate 으로 트랜잭션을 나눈다.
+ */
+@SpringBootTest
+class QueryCacheEvictorTest {
+
+	@Autowired MemberRepository memberRepository;
+	@Autowired CacheManager cacheManager;
+	@Autowired PlatformTransactionManager transactionManager;
+	@Autowired QueryCacheEvictor queryCacheEvictor;
+	@PersistenceContext EntityManager em;
+	
+	@Test
+	void evictAfterCommit() {
+		memberRepository.findUsernameList(); // 캐시 저장
+		assertThat(cachedUsernames()).isNotNull();
+		
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			memberRepository.saveAndFlush(new Member("evictAfterCommit", 10));
+			assertThat(cachedUsernames()).isNotNull(); // 커밋 전에는 비우지 않는다
+		});
+		
+		assertThat(cachedUsernames()).isNull();
+		assertThat(memberRepository.findUsernameList()).contains("evictAfterCommit");
+	}
+	
+	@Test
+	void keepOnRollback() {
+		memberRepository.findUsernameList();
+		
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			memberRepository.saveAndFlush(new Member("keepOnRollback", 10));
+			status.setRollbackOnly();
+		});
+		
+		assertThat(cachedUsernames()).isNotNull();
+	}
+	
+	/**
+	 * 같은 트랜잭션에서 변경한 뒤 조회하면 캐시가 아닌 DB 를 조회하고, 커밋 전 결과를 캐시에 저장하지 않는다.
+	 * 변경 감지(setUsername)로 생긴 flush 전 변경도 확인한다.
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	void skipCacheWithPendingWrites() {
+		Member member = memberRepository.save(new Member("pendingWrite", 10));
+		memberRepository.findUsernameList();
+		
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			assertThat(memberRepository.findUsernameList()).contains("pendingWrite"); // 변경 전 - 캐시 사용
+			
+			Member findMember = memberRepository.findById(member.getId()).get();
+			findMember.setUsername("pendingWriteChanged");
+			
+			assertThat(memberRepository.findUsernameList()).contains("pendingWriteChanged").doesNotContain("pendingWrite");
+			assertThat((List<String>) cachedUsernames().get()).contains("pendingWrite").doesNotContain("pendingWriteChanged");
+		});
+		
+		assertThat(cachedUsernames()).isNull();
+	}
+	
+	/**
+	 * 캐시 조건은 flush 하지 않는다. flush 되지 않은 저장이 있으면 캐시를 사용하지 않을 뿐, 저장은 그대로 대기한다.
+	 * (조건에서 flush 하면 제약 조건 위반이 조회 메소드에서 변환되지 않은 PersistenceException 으로 전달된다)
+	 */
+	@Test
+	void checkPendingWritesWithoutFlush() {
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			assertThat(queryCacheEvictor.isCacheable(QueryCacheNames.MEMBER_USERNAMES)).isTrue();
+			
+			memberRepository.save(new Member("notFlushed", 10));
+			ActionQueue actionQueue = em.unwrap(SessionImplementor.class).getActionQueue();
+			assertThat(actionQueue.hasAnyQueuedActions()).isTrue();
+			
+			assertThat(queryCacheEvictor.isCacheable(QueryCacheNames.MEMBER_USERNAMES)).isFalse();
+			assertThat(queryCacheEvictor.isCacheable(QueryCacheNames.MEMBER_DTO)).isFalse();
+			assertThat(actionQueue.hasAnyQueuedActions()).isTrue(); // insert 는 아직 실행되지 않았다
+			status.setRollbackOnly();
+		});
+	}
+	
+	/**
+	 * 엔티티를 여러 건 변경해도 트랜잭션마다 TransactionSynchronization 은 하나만 등록된다.
+	 */
+	@Test
+	void oneSynchronizationPerTransaction() {
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			memberRepository.saveAndFlush(new Member("sync0", 0));
+			int synchronizations = TransactionSynchronizationManager.getSynchronizations().size();
+			
+			for (int i = 1; i < 100; i++) {
+				memberRepository.save(new Member("sync" + i, i));
+			}
+			memberRepository.flush();
+			
+			assertThat(TransactionSynchronizationManager.getSynchronizations()).hasSize(synchronizations);
+		});
+	}
+	
+	private ValueWrapper cachedUsernames() {
+		return cacheManager.getCache(QueryCacheNames.MEMBER_USERNAMES).get(SimpleKey.EMPTY);
+	}
+}
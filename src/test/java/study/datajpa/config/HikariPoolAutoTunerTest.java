@@ -0,0 +1,104 @@
+package study.datajpa.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+/**
+ * min 5, max 12, step 2, shrink-after 3 으로 풀 상태를 바꿔가며 maximum-pool-size 조정을 확인한다.
+ * 시작하지 않은 HikariDataSource 를 spy 로 감싸서 maximum-pool-size 는 실제 설정 값을 사용하고 풀 상태만 stub 한다.
+ */
+class HikariPoolAutoTunerTest {
+
+	HikariPoolMXBean pool = mock(HikariPoolMXBean.class);
+	HikariDataSource dataSource = spy(new HikariDataSource());
+	HikariPoolAutoTuner tuner = new HikariPoolAutoTuner(dataSource, 5, 12, 2, 3);
+	
+	@BeforeEach
+	void setUp() {
+		doReturn(pool).when(dataSource).getHikariPoolMXBean();
+		dataSource.setMaximumPoolSize(10);
+	}
+	
+	@Test
+	void growWhenPending() {
+		poolState(10, 1);
+		tuner.tune();
+		assertThat(dataSource.getMaximumPoolSize()).isEqualTo(12);
+	}
+	
+	@Test
+	void growCappedAtMax() {
+		dataSource.setMaximumPoolSize(11);
+		poolState(11, 3);
+		tuner.tune();
+		assertThat(dataSource.getMaximumPoolSize()).isEqualTo(12);
+		
+		poolState(12, 3);
+		tuner.tune();
+		assertThat(dataSource.getMaximumPoolSize()).isEqualTo(12);
+	}
+	
+	@Test
+	void shrinkAfterQuietPeriods() {
+		poolState(2, 0);
+		tuner.tune();
+		tuner.tune();
+		assertThat(dataSource.getMaximumPoolSize()).isEqualTo(10);
+		
+		tuner.tune();
+		assertThat(dataSource.getMaximumPoolSize()).isEqualTo(8);
+	}
+	
+	@Test
+	void busyPeriodResetsShrinkCount() {
+		poolState(2, 0);
+		tuner.tune();
+		tuner.tune();
+		
+		poolState(8, 0); // 절반 초과 사용
+		tuner.tune();
+		
+		poolState(2, 0);
+		tuner.tune();
+		tuner.tune();
+		assertThat(dataSource.getMaximumPoolSize()).isEqualTo(10);
+		tuner.tune();
+		assertThat(dataSource.getMaximumPoolSize()).isEqualTo(8);
+	}
+	
+	@Test
+	void shrinkFlooredAtMin() {
+		dataSource.setMaximumPoolSize(6);
+		poolState(0, 0);
+		for (int i = 0; i < 3; i++) {
+			tuner.tune();
+		}
+		assertThat(dataSource.getMaximumPoolSize()).isEqualTo(5);
+		
+		for (int i = 0; i < 3; i++) {
+			tuner.tune();
+		}
+		assertThat(dataSource.getMaximumPoolSize()).isEqualTo(5);
+	}
+	
+	@Test
+	void skipUntilPoolStarted() {
+		doReturn(null).when(dataSource).getHikariPoolMXBean();
+		tuner.tune();
+		assertThat(dataSource.getMaximumPoolSize()).isEqualTo(10);
+	}
+	
+	private void poolState(int active, int pending) {
+		given(pool.getActiveConnections()).willReturn(active);
+		given(pool.getThreadsAwaitingConnection()).willReturn(pending);
+	}
+}
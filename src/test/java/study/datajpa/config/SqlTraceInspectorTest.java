@@ -0,0 +1,72 @@
+package study.datajpa.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * 로그 스레드(start)를 띄우지 않고 버퍼에 쌓이는 것만 확인한다.
+ */
+class SqlTraceInspectorTest {
+
+	static final String SQL = "select m1_0.member_id from member m1_0";
+	
+	@Test
+	void sampleAll() {
+		SqlTraceInspector inspector = new SqlTraceInspector(true, 1, 100);
+		for (int i = 0; i < 50; i++) {
+			assertThat(inspector.inspect(SQL)).isSameAs(SQL);
+		}
+		assertThat(inspector.getCaptured()).isEqualTo(50);
+		assertThat(inspector.getDropped()).isZero();
+	}
+	
+	@Test
+	void sampleNone() {
+		SqlTraceInspector inspector = new SqlTraceInspector(true, 0, 100);
+		for (int i = 0; i < 1000; i++) {
+			inspector.inspect(SQL);
+		}
+		assertThat(inspector.getCaptured()).isZero();
+		assertThat(inspector.getDropped()).isZero();
+	}
+	
+	@Test
+	void disabled() {
+		SqlTraceInspector inspector = new SqlTraceInspector(false, 1, 100);
+		inspector.inspect(SQL);
+		assertThat(inspector.getCaptured()).isZero();
+		
+		inspector.configure(true, null);
+		inspector.inspect(SQL);
+		assertThat(inspector.getCaptured()).isEqualTo(1);
+	}
+	
+	/**
+	 * 버퍼가 가득 차면 기다리지 않고 버린다. SQL 은 그대로 반환한다.
+	 */
+	@Test
+	void dropWhenBufferFull() {
+		SqlTraceInspector inspector = new SqlTraceInspector(true, 1, 2);
+		assertTimeoutPreemptively(Duration.ofSeconds(1), () -> {
+			for (int i = 0; i < 5; i++) {
+				assertThat(inspector.inspect(SQL)).isSameAs(SQL);
+			}
+		});
+		assertThat(inspector.getCaptured()).isEqualTo(2);
+		assertThat(inspector.getDropped()).isEqualTo(3);
+	}
+	
+	@Test
+	void clampSampleRate() {
+		SqlTraceEndpoint endpoint = new SqlTraceEndpoint(new SqlTraceInspector(false, 0.01, 100));
+		
+		assertThat(endpoint.configure(null, 1.5)).containsEntry("sampleRate", 1.0).containsEntry("enabled", false);
+		assertThat(endpoint.configure(true, -0.3)).containsEntry("sampleRate", 0.0).containsEntry("enabled", true);
+		assertThat(endpoint.configure(null, 0.25)).containsEntry("sampleRate", 0.25);
+		assertThat(endpoint.configure(null, null)).containsEntry("sampleRate", 0.25).containsEntry("enabled", true);
+	}
+}
@@ -0,0 +1,44 @@
+package study.datajpa.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+/**
+ * MemberController 스모크 테스트 - 내장 H2(메모리)로 실제 HTTP 요청을 보낸다.
+ * JVM 뿐만 아니라 ./gradlew nativeTest 로 native image 에서도 실행해서 reachability metadata 누락을 확인한다.
+ */
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, 
+		properties = "spring.datasource.hikari.jdbc-url=jdbc:h2:mem:smoke;DB_CLOSE_DELAY=-1")
+class MemberControllerSmokeTest {
+
+	@Autowired TestRestTemplate restTemplate;
+	@Autowired MemberRepository memberRepository;
+	@Autowired TeamRepository teamRepository;
+	
+	@Test
+	void memberEndpoints() {
+		Team team = teamRepository.save(new Team("teamA"));
+		Member member = memberRepository.save(new Member("member1", 10, team));
+		
+		assertThat(restTemplate.getForObject("/member/{id}", String.class, member.getId())).isEqualTo("member1");
+		assertThat(restTemplate.getForObject("/member2/{id}", String.class, member.getId())).isEqualTo("member1");
+		assertThat(restTemplate.getForObject("/membersDto", String.class)).contains("\"username\":\"member1\"");
+		assertThat(restTemplate.getForObject("/members/search?teamName=teamA", String.class))
+				.contains("\"teamName\":\"teamA\"");
+		assertThat(restTemplate.getForObject("/members/search?username=&teamName=teamA", String.class))
+				.contains("\"username\":\"member1\"");
+		assertThat(restTemplate.getForEntity("/members/search?sort=lastSeenDate", String.class).getStatusCode())
+				.isEqualTo(HttpStatus.BAD_REQUEST);
+	}
+}
@@ -0,0 +1,58 @@
+package study.datajpa.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import study.datajpa.config.MemberDataSeeder;
+import study.datajpa.repository.support.MemberParallelScanner;
+import study.datajpa.repository.support.MemberParallelScanner.ScanResult;
+
+/**
+ * 내장 H2(embedded 프로파일) + 시드 데이터로 병렬 스캔을 검증한다. 외부 H2 서버가 필요 없고 매번 같은 데이터로 실행된다.
+ */
+@SpringBootTest
+@ActiveProfiles("embedded")
+class MemberParallelScannerTest {
+
+	@Autowired MemberDataSeeder memberDataSeeder;
+	@Autowired MemberParallelScanner memberParallelScanner;
+	@Autowired MemberRepository memberRepository;
+	
+	/**
+	 * 단일 스레드 스캔과 병렬 스캔이 모든 회원을 정확히 한 번씩 같은 값으로 넘기는지 확인한다.
+	 * 처리 시간/처리량은 MemberParallelScanner 가 스캔 종료 시 로그로 남긴다.
+	 */
+	@Test
+	void parallelScan() {
+		memberDataSeeder.seed(20, 500);
+		long total = memberRepository.count();
+		
+		ConcurrentHashMap<Long, Integer> singleSeen = new ConcurrentHashMap<>();
+		AtomicLong singleAgeSum = new AtomicLong();
+		ScanResult single = memberParallelScanner.scan(1, 1000, member -> {
+			singleSeen.merge(member.getId(), 1, Integer::sum);
+			singleAgeSum.addAndGet(member.getAge());
+		});
+		
+		ConcurrentHashMap<Long, Integer> parallelSeen = new ConcurrentHashMap<>();
+		AtomicLong parallelAgeSum = new AtomicLong();
+		ScanResult parallel = memberParallelScanner.scan(4, 1000, member -> {
+			parallelSeen.merge(member.getId(), 1, Integer::sum);
+			parallelAgeSum.addAndGet(member.getAge());
+		});
+		
+		assertThat(single.rows()).isEqualTo(total);
+		assertThat(parallel.rows()).isEqualTo(total);
+		assertThat(singleSeen).hasSize((int) total).allSatisfy((id, count) -> assertThat(count).isEqualTo(1));
+		assertThat(parallelSeen).hasSize((int) total).allSatisfy((id, count) -> assertThat(count).isEqualTo(1));
+		assertThat(parallelSeen.keySet()).isEqualTo(singleSeen.keySet());
+		assertThat(parallelAgeSum.get()).isEqualTo(singleAgeSum.get());
+	}
+}
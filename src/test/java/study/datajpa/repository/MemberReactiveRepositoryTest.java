@@ -0,0 +1,97 @@
+package study.datajpa.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import reactor.core.Disposable;
+import reactor.test.StepVerifier;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.support.QueryStatsCollector;
+import study.datajpa.repository.support.QueryStatsCollector.MethodSummary;
+
+@SpringBootTest
+class MemberReactiveRepositoryTest {
+
+	static final int AGE = 2000; // 다른 테스트 데이터와 겹치지 않는 나이
+	
+	@Autowired MemberReactiveRepository memberReactiveRepository;
+	@Autowired MemberRepository memberRepository;
+	@Autowired TeamRepository teamRepository;
+	@Autowired QueryStatsCollector queryStatsCollector;
+	
+	/**
+	 * 구독자가 요청한 만큼만 구간(chunk)을 조회하고, DTO 에 팀 이름이 들어 있다.
+	 * 구간 조회 횟수는 QueryStatsCollector 의 메소드 별 실행 횟수로 확인한다.
+	 */
+	@Test
+	void streamDtoByAgeBackpressure() {
+		Team team = teamRepository.save(new Team("reactiveTeam"));
+		memberRepository.saveAll(IntStream.range(0, 25).mapToObj(i -> new Member("reactive" + i, AGE, team)).toList());
+		long before = chunkQueries();
+		
+		StepVerifier.create(memberReactiveRepository.streamDtoByAge(AGE, 10), 5)
+				.assertNext(dto -> assertThat(dto.getTeamName()).isEqualTo("reactiveTeam"))
+				.expectNextCount(4)
+				.then(() -> assertThat(chunkQueries() - before).isEqualTo(1)) // 5건만 요청 - 첫 구간만 조회
+				.thenRequest(Long.MAX_VALUE)
+				.expectNextCount(20)
+				.expectComplete()
+				.verify(Duration.ofSeconds(10));
+		
+		assertThat(chunkQueries() - before).isEqualTo(3); // 10 + 10 + 5(마지막 구간)
+	}
+	
+	/**
+	 * 스레드 1개, 대기 작업 1개인 스케줄러 - 스레드와 큐가 모두 차 있으면 기다리지 않고 RejectedExecutionException 으로 실패한다.
+	 */
+	@Test
+	void rejectWhenQueueIsFull() throws InterruptedException {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		MemberRepository blockingRepository = mock(MemberRepository.class);
+		given(blockingRepository.findMemberDto()).willAnswer(invocation -> {
+			started.countDown();
+			release.await(10, TimeUnit.SECONDS);
+			return List.<MemberDto>of();
+		});
+		
+		MemberReactiveRepository repository = new MemberReactiveRepository(blockingRepository, 1, 1);
+		try {
+			Disposable running = repository.findMemberDto().subscribe(); // 스레드 점유
+			assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+			Disposable queued = repository.findMemberDto().subscribe(); // 큐 1건
+			
+			StepVerifier.create(repository.findMemberDto())
+					.expectError(RejectedExecutionException.class)
+					.verify(Duration.ofSeconds(10));
+			
+			release.countDown();
+			running.dispose();
+			queued.dispose();
+		} finally {
+			release.countDown();
+			repository.shutdown();
+		}
+	}
+	
+	private long chunkQueries() {
+		return queryStatsCollector.summaries().stream()
+				.filter(summary -> summary.method().equals("MemberRepository.findDtoByAgeAfterId"))
+				.mapToLong(MethodSummary::count)
+				.sum();
+	}
+}
@@ -1,6 +1,7 @@
 package study.datajpa.repository;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.util.Arrays;
@@ -11,10 +12,16 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SelfDirtinessTracker;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Slice;
@@ -32,6 +39,7 @@ import jakarta.persistence.MappedSuperclass;
 import jakarta.persistence.PersistenceContext;
 import jakarta.transaction.Transactional;
 import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberSearchCondition;
 import study.datajpa.dto.UsernameOnlyDto;
 import study.datajpa.entity.Member;
 import study.datajpa.entity.Team;
@@ -762,31 +770,308 @@ class MemberRepositoryTest {
 	 * Native Query Projections
 	 * 
 	 * 네이티브 쿼리를 활용하여 projections를 사용.
-	 * 
+	 * left join 한 row 수와 count 쿼리가 회원 수와 같아야 한다. (team 과 곱해지지 않음)
+	 * 다른 테스트가 커밋한 회원도 함께 조회되므로 전체 건수는 회원 수(count)와 비교한다.
 	 */
 	@Test
 	public void nativeQuery() {
+		Team teamA = new Team("nativeTeamA");
+		Team teamB = new Team("nativeTeamB");
+		teamRepository.save(teamA);
+		teamRepository.save(teamB);
+		memberRepository.save(new Member("nativeMember1", 10, teamA));
+		memberRepository.save(new Member("nativeMember2", 20, teamA));
+		memberRepository.save(new Member("nativeMember3", 30, teamB));
+		memberRepository.save(new Member("nativeMember4", 40));
+		
+		em.flush();
+		em.clear();
+		
+		long total = memberRepository.count();
+		Page<MemberProjections> all = memberRepository.findByNativeQuery(PageRequest.of(0, (int) total + 10));
+		assertThat(all.getContent()).hasSize((int) total);
+		assertThat(all.getContent()).extracting(MemberProjections::getId).doesNotHaveDuplicates();
+		assertThat(all.getTotalElements()).isEqualTo(total);
+		
+		Map<String, String> teamNames = new HashMap<>();
+		all.getContent().stream()
+				.filter(p -> p.getUsername().startsWith("nativeMember"))
+				.forEach(p -> teamNames.put(p.getUsername(), p.getTeamName()));
+		assertThat(teamNames).containsEntry("nativeMember1", "nativeTeamA")
+				.containsEntry("nativeMember2", "nativeTeamA")
+				.containsEntry("nativeMember3", "nativeTeamB")
+				.containsEntry("nativeMember4", null);
+		
+		Page<MemberProjections> page = memberRepository.findByNativeQuery(PageRequest.of(1, 2));
+		assertThat(page.getContent()).hasSize(2);
+		assertThat(page.getTotalElements()).isEqualTo(total); // countQuery
+		assertThat(page.getTotalPages()).isEqualTo((int) ((total + 1) / 2));
+	}
+	
+	/**
+	 * @NamedNativeQuery + @SqlResultSetMapping(MemberDtoMapping) - 생성자로 MemberDto 를 바로 만든다. member_id 순서로 페이징
+	 */
+	@Test
+	public void findNativeMemberDto() {
+		Team team = new Team("nativeDtoTeam");
+		teamRepository.save(team);
+		memberRepository.save(new Member("nativeDto1", 10, team));
+		memberRepository.save(new Member("nativeDto2", 20));
+		
+		em.flush();
+		em.clear();
+		
+		long total = memberRepository.count();
+		List<MemberDto> all = memberRepository.findNativeMemberDto(PageRequest.of(0, (int) total + 10));
+		assertThat(all).hasSize((int) total);
+		assertThat(all).extracting(MemberDto::getId).doesNotHaveDuplicates().isSorted();
+		assertThat(all).filteredOn(dto -> dto.getUsername().startsWith("nativeDto"))
+				.extracting(MemberDto::getUsername, MemberDto::getTeamName)
+				.containsExactly(tuple("nativeDto1", "nativeDtoTeam"), tuple("nativeDto2", null));
+		
+		List<MemberDto> page = memberRepository.findNativeMemberDto(PageRequest.of(1, 2));
+		assertThat(page).extracting(MemberDto::getId)
+				.containsExactlyElementsOf(all.subList(2, Math.min(4, all.size())).stream().map(MemberDto::getId).toList());
+	}
+	
+	/**
+	 * extra lazy 컬렉션
+	 * 
+	 * Team.members 에 @LazyCollection(LazyCollectionOption.EXTRA) 를 선언하면
+	 * size(), contains(), add() 를 호출해도 컬렉션 전체를 초기화하지 않는다.
+	 */
+	@Test
+	public void extraLazyMembers() {
 		Team teamA = new Team("teamA");
 		teamRepository.save(teamA);
+		memberRepository.save(new Member("member1", 10, teamA));
+		memberRepository.save(new Member("member2", 20, teamA));
 		
-		Member member1 = new Member("member1", 10, teamA);
-		Member member2 = new Member("member2", 20, teamA);
-		memberRepository.save(member1);
-		memberRepository.save(member2);
+		em.flush();
+		em.clear();
+		
+		Team findTeam = teamRepository.findById(teamA.getId()).get();
+		Member member3 = memberRepository.save(new Member("member3", 30, findTeam)); // add() - 초기화 하지 않음
+		
+		em.flush();
+		
+		assertThat(findTeam.getMembers().size()).isEqualTo(3); // select count 쿼리
+		assertThat(findTeam.getMembers().contains(member3)).isTrue(); // select 1 쿼리
+		assertThat(Hibernate.isInitialized(findTeam.getMembers())).isFalse();
+	}
+	
+	/**
+	 * StatelessSession 조회 - 준영속 Member 를 반환하고 team 은 fetch 조인으로 이미 로딩되어 있다.
+	 * 테스트 트랜잭션에서 flush 만 하고 커밋하지 않은 회원이 조회되므로 같은 커넥션을 사용한다는 것도 확인된다.
+	 */
+	@Test
+	public void findStateless() {
+		Team team = new Team("statelessTeam");
+		teamRepository.save(team);
+		memberRepository.save(new Member("statelessMember", 10, team));
+		em.flush();
+		em.clear();
+		
+		List<Member> members = memberRepository.findStatelessByUsername("statelessMember");
+		
+		assertThat(members).hasSize(1);
+		Member member = members.get(0);
+		assertThat(em.contains(member)).isFalse();
+		assertThat(Hibernate.isInitialized(member.getTeam())).isTrue();
+		assertThat(member.getTeam().getName()).isEqualTo("statelessTeam");
+		
+		assertThat(memberRepository.findAllStateless())
+				.filteredOn(m -> m.getUsername().equals("statelessMember"))
+				.allMatch(m -> !em.contains(m) && Hibernate.isInitialized(m.getTeam()));
+	}
+	
+	/**
+	 * 바이트코드 향상(build.gradle 의 hibernate.enhancement) 변경 감지
+	 * 
+	 * 엔티티가 SelfDirtinessTracker 를 구현하게 되어 변경된 필드를 스스로 기록한다.
+	 * flush 시 영속성 컨텍스트의 모든 엔티티 스냅샷을 비교하지 않고 변경된 엔티티만 update 한다.
+	 * 다른 테스트가 커밋한 회원과 섞이지 않도록 이 테스트에서만 쓰는 나이(9001)로 조회한다.
+	 */
+	@Test
+	public void enhancedDirtyTracking() {
+		int age = 9001;
+		for (int i = 0; i < 10; i++) {
+			memberRepository.save(new Member("dirtyMember" + i, age));
+		}
+		em.flush();
+		em.clear();
+		
+		List<Member> members = memberRepository.findListByAge(age, PageRequest.of(0, 10));
+		assertThat(members).hasSize(10).allMatch(m -> m instanceof SelfDirtinessTracker);
 		
+		Member member = members.get(0);
+		member.setUsername("changed");
+		assertThat(((SelfDirtinessTracker) member).$$_hibernate_getDirtyAttributes()).containsExactly("username");
+		assertThat(members.subList(1, members.size()))
+				.allMatch(m -> !((SelfDirtinessTracker) m).$$_hibernate_hasDirtyAttributes());
+		
+		Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+		long updates = statistics.getEntityUpdateCount();
+		em.flush();
+		assertThat(statistics.getEntityUpdateCount() - updates).isEqualTo(1);
+		assertThat(((SelfDirtinessTracker) member).$$_hibernate_hasDirtyAttributes()).isFalse();
+	}
+	
+	/**
+	 * 컬렉션 fetch 조인 페이징 - id 페이징 후 in 쿼리로 members fetch 조인
+	 * 다른 테스트가 커밋한 팀이 있어도 결과가 같도록, 이름이 가장 뒤에 정렬되는 팀(zzTeam*)을 만들고 건수는 증가분으로 확인한다.
+	 */
+	@Test
+	public void pagingWithCollectionFetch() {
+		long teamCount = teamRepository.count();
+		for (int i = 0; i < 5; i++) {
+			Team team = new Team("zzTeam" + i);
+			teamRepository.save(team);
+			memberRepository.save(new Member("member" + i + "_1", 10, team));
+			memberRepository.save(new Member("member" + i + "_2", 10, team));
+		}
 		em.flush();
 		em.clear();
 		
-		Page<MemberProjections> page = memberRepository.findByNativeQuery(PageRequest.of(0, 10));
-		List<MemberProjections> projections = page.getContent();
+		Page<Team> page = teamRepository.findPageWithMembers(PageRequest.of(0, 2, Sort.by(Direction.DESC, "name")));
 		
-		for (MemberProjections memberProjections : projections) {
-			System.out.println("memberProjections id = " + memberProjections.getId());
-			System.out.println("memberProjections usernmae = " + memberProjections.getUsername());
-			System.out.println("memberProjections teamName = " + memberProjections.getTeamName());
+		assertThat(page.getContent()).extracting(Team::getName).containsExactly("zzTeam4", "zzTeam3");
+		assertThat(page.getTotalElements()).isEqualTo(teamCount + 5);
+		assertThat(Hibernate.isInitialized(page.getContent().get(0).getMembers())).isTrue();
+		assertThat(page.getContent().get(0).getMembers()).hasSize(2);
+	}
+	
+	/**
+	 * keyset 슬라이스 - id 를 size + 1 건 조회해서 hasNext 를 판단하고, 엔티티는 반환할 size 건만 만든다.
+	 * 다른 테스트가 커밋한 회원과 섞이지 않도록 이 테스트에서만 쓰는 나이(7001)로 조회한다.
+	 */
+	@Test
+	public void findSliceByAgeAfterId() {
+		int age = 7001;
+		for (int i = 0; i < 5; i++) {
+			memberRepository.save(new Member("sliceMember" + i, age));
 		}
+		em.flush();
+		em.clear();
+		
+		// 남은 건수 == size 이면 다음 페이지 없음
+		Slice<Member> exact = memberRepository.findSliceByAgeAfterId(age, null, 5);
+		assertThat(exact.getContent()).hasSize(5);
+		assertThat(exact.hasNext()).isFalse();
+		em.clear();
+		
+		// 남은 건수 == size + 1 이면 다음 페이지 있음, 엔티티는 size 건만 영속성 컨텍스트에 올라온다
+		Slice<Member> first = memberRepository.findSliceByAgeAfterId(age, null, 4);
+		assertThat(first.getContent()).extracting(Member::getUsername)
+				.containsExactly("sliceMember0", "sliceMember1", "sliceMember2", "sliceMember3");
+		assertThat(first.hasNext()).isTrue();
+		assertThat(em.unwrap(SessionImplementor.class).getPersistenceContext().getNumberOfManagedEntities()).isEqualTo(4);
+		
+		// 마지막 id 이후부터 이어서 조회
+		Long lastId = first.getContent().get(3).getId();
+		Slice<Member> next = memberRepository.findSliceByAgeAfterId(age, lastId, 4);
+		assertThat(next.getContent()).extracting(Member::getUsername).containsExactly("sliceMember4");
+		assertThat(next.hasNext()).isFalse();
+		
+		Slice<Member> empty = memberRepository.findSliceByAgeAfterId(age, next.getContent().get(0).getId(), 4);
+		assertThat(empty.getContent()).isEmpty();
+		assertThat(empty.hasNext()).isFalse();
+	}
+	
+	/**
+	 * size 가 1 보다 작으면 쿼리를 실행하지 않고 실패한다. (IllegalArgumentException 은 리포지토리 프록시에서 InvalidDataAccessApiUsageException 으로 변환)
+	 */
+	@Test
+	public void findSliceByAgeAfterIdInvalidSize() {
+		assertThrows(InvalidDataAccessApiUsageException.class, () -> memberRepository.findSliceByAgeAfterId(7001, null, 0));
+		assertThrows(InvalidDataAccessApiUsageException.class, () -> memberRepository.findSliceByAgeAfterId(7001, null, -1));
+	}
+	
+	/**
+	 * 여러 id 조회 - 영속성 컨텍스트에 있는 회원은 제외하고 나머지만 in 쿼리로 조회, 요청한 id 순서 유지
+	 */
+	@Test
+	public void findAllByIdBatched() {
+		Member member1 = memberRepository.save(new Member("member1", 10));
+		Member member2 = memberRepository.save(new Member("member2", 20));
+		Member member3 = memberRepository.save(new Member("member3", 30));
+		em.flush();
+		em.clear();
+		
+		Member cached = memberRepository.findById(member2.getId()).get(); // 영속성 컨텍스트에 올려둠
 		
+		List<Member> members = memberRepository.findAllByIdBatched(List.of(member3.getId(), member2.getId(), -1L, member1.getId()));
 		
+		assertThat(members).extracting(Member::getUsername).containsExactly("member3", "member2", "member1");
+		assertThat(members.get(1)).isSameAs(cached);
+	}
+	
+	/**
+	 * 동적 검색 - null 인 조건은 where 절에서 빠진다
+	 */
+	@Test
+	public void search() {
+		Team teamA = new Team("searchTeamA");
+		Team teamB = new Team("searchTeamB");
+		teamRepository.save(teamA);
+		teamRepository.save(teamB);
+		memberRepository.save(new Member("member1", 10, teamA));
+		memberRepository.save(new Member("member2", 20, teamA));
+		memberRepository.save(new Member("member3", 30, teamB));
+		memberRepository.save(new Member("member4", 40, teamB));
+		
+		MemberSearchCondition condition = new MemberSearchCondition();
+		condition.setTeamName("searchTeamA");
+		condition.setAgeGoe(15);
+		List<MemberDto> result = memberRepository.search(condition);
+		assertThat(result).extracting(MemberDto::getUsername).containsExactly("member2");
+		
+		condition.setTeamName("searchTeamB");
+		condition.setAgeLoe(35);
+		result = memberRepository.search(condition);
+		assertThat(result).extracting(MemberDto::getUsername).containsExactly("member3");
+		assertThat(result).extracting(MemberDto::getTeamName).containsOnly("searchTeamB");
+	}	
+	/**
+	 * 동적 검색 + 페이징
+	 * · 빈 문자열 조건은 where 절에서 빠진다.
+	 * · content 는 정렬 후 limit/offset, 전체 건수는 count 쿼리 (팀 조건이 없으면 팀이 없는 회원도 센다)
+	 * 다른 테스트가 커밋한 회원과 섞이지 않도록 이 테스트에서만 쓰는 나이(8001 ~ 8006)로 조회한다.
+	 */
+	@Test
+	public void searchPage() {
+		Team team = new Team("searchPageTeam");
+		teamRepository.save(team);
+		for (int i = 1; i <= 5; i++) {
+			memberRepository.save(new Member("pageMember" + i, 8000 + i, team));
+		}
+		memberRepository.save(new Member("pageMember6", 8006));
+		
+		MemberSearchCondition condition = new MemberSearchCondition();
+		condition.setUsername("");
+		condition.setTeamName("searchPageTeam");
+		Page<MemberDto> page = memberRepository.search(condition, PageRequest.of(1, 2, Sort.by(Direction.DESC, "age")));
+		assertThat(page.getContent()).extracting(MemberDto::getUsername).containsExactly("pageMember3", "pageMember2");
+		assertThat(page.getTotalElements()).isEqualTo(5); // count 쿼리
+		assertThat(page.getTotalPages()).isEqualTo(3);
+		assertThat(page.hasNext()).isTrue();
+		
+		condition = new MemberSearchCondition();
+		condition.setUsername(" ");
+		condition.setTeamName("");
+		condition.setAgeGoe(8001);
+		condition.setAgeLoe(8006);
+		page = memberRepository.search(condition, PageRequest.of(0, 4, Sort.by(Direction.DESC, "username")));
+		assertThat(page.getContent()).extracting(MemberDto::getUsername)
+				.containsExactly("pageMember6", "pageMember5", "pageMember4", "pageMember3");
+		assertThat(page.getTotalElements()).isEqualTo(6); // 팀이 없는 pageMember6 포함
+		
+		page = memberRepository.search(condition, PageRequest.of(0, 10, Sort.by("teamName", "username")));
+		assertThat(page.getContent()).hasSize(6); // 첫 페이지가 size 보다 적으면 count 쿼리 없이 전체 건수를 안다
+		assertThat(page.getTotalElements()).isEqualTo(6);
 		
+		MemberSearchCondition ageCondition = condition;
+		assertThrows(UnsupportedSortPropertyException.class, 
+				() -> memberRepository.search(ageCondition, PageRequest.of(0, 10, Sort.by("lastSeenDate"))));
 	}
 }
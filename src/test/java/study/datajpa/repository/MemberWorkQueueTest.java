@@ -0,0 +1,120 @@
+package study.datajpa.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.support.MemberWorkQueue;
+
+/**
+ * 여러 워커가 같은 큐(age)를 동시에 처리해도 모든 회원이 정확히 한 번씩 처리된다.
+ * 내장 H2(embedded 프로파일)는 skip locked 가 없어 잠긴 row 를 기다렸다가 조건을 다시 확인한다. (LOCK_TIMEOUT 10초)
+ * 잠금 대기 시간 제한(findLockTimeoutByUsername)도 같은 곳에서 확인한다.
+ */
+@SpringBootTest
+@ActiveProfiles("embedded")
+class MemberWorkQueueTest {
+
+	static final int QUEUED = 1000; // 시드 데이터(age 0 ~ 99)와 겹치지 않는 나이
+	static final int DONE = 1001;
+	
+	@Autowired MemberWorkQueue memberWorkQueue;
+	@Autowired MemberRepository memberRepository;
+	@Autowired PlatformTransactionManager transactionManager;
+	@PersistenceContext EntityManager em;
+	
+	@Test
+	void processEachMemberOnce() {
+		List<Long> ids = memberRepository.saveAll(IntStream.range(0, 200).mapToObj(i -> new Member("queue" + i, QUEUED)).toList())
+				.stream()
+				.map(Member::getId)
+				.toList();
+		
+		Map<Long, Integer> processed = new ConcurrentHashMap<>();
+		long count = memberWorkQueue.process(QUEUED, 10, 4, member -> {
+			processed.merge(member.getId(), 1, Integer::sum);
+			member.setAge(DONE);
+		});
+		
+		assertThat(count).isEqualTo(ids.size());
+		assertThat(processed.keySet()).containsExactlyInAnyOrderElementsOf(ids);
+		assertThat(processed.values()).containsOnly(1);
+		assertThat(memberRepository.findListByAge(QUEUED, PageRequest.of(0, 1))).isEmpty();
+	}
+	
+	/**
+	 * 비관적 잠금 대기 시간 제한 - 다른 트랜잭션이 잠근 row 를 기다리다가 시간이 지나면 PessimisticLockingFailureException
+	 * H2 는 쿼리 단위 잠금 대기 시간(jakarta.persistence.lock.timeout)을 SQL 로 표현하지 못하므로 
+	 * 기다리는 세션의 LOCK_TIMEOUT 을 잠시 줄였다가 embedded 프로파일 값(10초)으로 되돌린다.
+	 */
+	@Test
+	void lockTimeout() throws Exception {
+		memberRepository.save(new Member("lockTimeoutMember", 2000));
+		TransactionTemplate tx = new TransactionTemplate(transactionManager);
+		
+		CountDownLatch locked = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService holder = Executors.newSingleThreadExecutor();
+		Future<?> holding = holder.submit(() -> tx.executeWithoutResult(status -> {
+			assertThat(memberRepository.findLockTimeoutByUsername("lockTimeoutMember")).hasSize(1);
+			locked.countDown();
+			try {
+				release.await(30, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}));
+		
+		try {
+			assertThat(locked.await(10, TimeUnit.SECONDS)).isTrue();
+			
+			assertThatThrownBy(() -> tx.executeWithoutResult(status -> {
+				setLockTimeout(500);
+				try {
+					memberRepository.findLockTimeoutByUsername("lockTimeoutMember");
+				} finally {
+					setLockTimeout(10000);
+				}
+			})).isInstanceOf(PessimisticLockingFailureException.class);
+		} finally {
+			release.countDown();
+			holding.get(10, TimeUnit.SECONDS);
+			holder.shutdown();
+		}
+		
+		// 잠금이 풀리면 바로 잠글 수 있다
+		tx.executeWithoutResult(status -> 
+			assertThat(memberRepository.findLockTimeoutByUsername("lockTimeoutMember")).hasSize(1));
+	}
+	
+	private void setLockTimeout(int millis) {
+		em.unwrap(Session.class).doWork(connection -> {
+			try (Statement statement = connection.createStatement()) {
+				statement.execute("set lock_timeout " + millis);
+			}
+		});
+	}
+}
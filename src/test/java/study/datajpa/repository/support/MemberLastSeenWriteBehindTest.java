@@ -0,0 +1,122 @@
+package study.datajpa.repository.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class MemberLastSeenWriteBehindTest {
+
+	private static final LocalDateTime T1 = LocalDateTime.of(2023, 4, 1, 10, 0);
+	private static final LocalDateTime T2 = T1.plusMinutes(1);
+	private static final LocalDateTime T3 = T1.plusMinutes(2);
+	
+	JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+	
+	/**
+	 * 같은 회원은 가장 최근 값 하나만 남는다. 호출 순서가 아니라 시간 기준이다.
+	 */
+	@Test
+	void coalesceLatestWins() {
+		MemberLastSeenWriteBehind writeBehind = new MemberLastSeenWriteBehind(jdbcTemplate, 100, 500);
+		writeBehind.touch(1L, T1);
+		writeBehind.touch(1L, T3);
+		writeBehind.touch(1L, T2);
+		assertThat(writeBehind.pendingCount()).isEqualTo(1);
+		
+		writeBehind.flush();
+		
+		List<Object[]> rows = flushedRows(1).get(0);
+		assertThat(rows).hasSize(1);
+		assertThat(rows.get(0)).containsExactly(T3, 1L);
+		assertThat(writeBehind.pendingCount()).isZero();
+	}
+	
+	/**
+	 * 버퍼가 capacity 에 도달하면 touch() 를 호출한 스레드가 바로 flush 한다.
+	 */
+	@Test
+	void flushWhenCapacityReached() {
+		MemberLastSeenWriteBehind writeBehind = new MemberLastSeenWriteBehind(jdbcTemplate, 3, 500);
+		writeBehind.touch(1L, T1);
+		writeBehind.touch(2L, T1);
+		writeBehind.touch(2L, T2); // 같은 회원은 버퍼 크기를 늘리지 않는다
+		verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+		
+		writeBehind.touch(3L, T1);
+		
+		assertThat(flushedRows(1).get(0)).hasSize(3);
+		assertThat(writeBehind.pendingCount()).isZero();
+	}
+	
+	/**
+	 * 실패한 배치만 버퍼로 돌아가고 다음 flush 에서 다시 반영된다. 그 사이 들어온 더 최근 값은 유지된다.
+	 */
+	@Test
+	void requeueFailedBatch() {
+		given(jdbcTemplate.batchUpdate(anyString(), anyList()))
+				.willThrow(new DataAccessResourceFailureException("connection refused"))
+				.willReturn(new int[0]);
+		MemberLastSeenWriteBehind writeBehind = new MemberLastSeenWriteBehind(jdbcTemplate, 100, 2);
+		writeBehind.touch(1L, T1);
+		writeBehind.touch(2L, T1);
+		writeBehind.touch(3L, T1);
+		
+		writeBehind.flush(); // 첫 배치(2건) 실패, 두 번째 배치(1건) 성공
+		
+		List<List<Object[]>> attempts = flushedRows(2);
+		assertThat(attempts.get(0)).hasSize(2);
+		assertThat(writeBehind.pendingCount()).isEqualTo(2);
+		
+		Long requeued = (Long) attempts.get(0).get(0)[1];
+		writeBehind.touch(requeued, T2);
+		writeBehind.flush();
+		
+		List<Object[]> retried = flushedRows(3).get(2);
+		assertThat(retried).hasSize(2);
+		assertThat(retried).anySatisfy(row -> assertThat(row).containsExactly(T2, requeued));
+		assertThat(writeBehind.pendingCount()).isZero();
+	}
+	
+	/**
+	 * 컨텍스트를 닫으면 @PreDestroy 로 남은 변경을 모두 반영한다.
+	 */
+	@Test
+	void drainOnShutdown() {
+		MemberLastSeenWriteBehind writeBehind;
+		try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+			context.registerBean(JdbcTemplate.class, () -> jdbcTemplate);
+			context.register(MemberLastSeenWriteBehind.class);
+			context.refresh();
+			
+			writeBehind = context.getBean(MemberLastSeenWriteBehind.class);
+			writeBehind.touch(1L, T1);
+			writeBehind.touch(2L, T2);
+			verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+		}
+		
+		assertThat(flushedRows(1).get(0)).hasSize(2);
+		assertThat(writeBehind.pendingCount()).isZero();
+	}
+	
+	@SuppressWarnings("unchecked")
+	private List<List<Object[]>> flushedRows(int times) {
+		ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+		verify(jdbcTemplate, times(times)).batchUpdate(eq("update member set last_seen_date = ? where member_id = ?"), rows.capture());
+		return rows.getAllValues();
+	}
+}
@@ -0,0 +1,63 @@
+package study.datajpa.repository.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.support.MemberParallelScanner.ScanProgress;
+import study.datajpa.repository.support.MemberParallelScanner.ScanResult;
+
+/**
+ * id 구간 분할 - id 사이에 빈 곳(한 구간 전체가 비는 경우 포함)이 있어도 구간 경계에서 회원이 빠지거나 두 번 넘어오지 않는다.
+ */
+@SpringBootTest
+class MemberParallelScannerRangeTest {
+
+	@Autowired MemberParallelScanner memberParallelScanner;
+	@Autowired MemberRepository memberRepository;
+	
+	@Test
+	void scanGappedIds() {
+		List<Member> saved = memberRepository.saveAll(IntStream.range(0, 60).mapToObj(i -> new Member("scan" + i, i)).toList());
+		List<Member> removed = new ArrayList<>();
+		for (int i = 0; i < saved.size(); i++) {
+			if (i % 3 == 1 || (i >= 20 && i < 35)) { // 띄엄띄엄 + chunk-size 보다 긴 빈 구간
+				removed.add(saved.get(i));
+			}
+		}
+		memberRepository.deleteAll(removed);
+		
+		List<Long> ids = memberRepository.findAll().stream().map(Member::getId).toList();
+		long minId = Collections.min(ids);
+		long maxId = Collections.max(ids);
+		int chunkSize = 5;
+		
+		Map<Long, Integer> seen = new ConcurrentHashMap<>();
+		List<ScanProgress> progress = Collections.synchronizedList(new ArrayList<>());
+		ScanResult result = memberParallelScanner.scan(3, chunkSize, 
+				member -> seen.merge(member.getId(), 1, Integer::sum), progress::add);
+		
+		assertThat(seen.keySet()).containsExactlyInAnyOrderElementsOf(ids);
+		assertThat(seen.values()).containsOnly(1);
+		assertThat(result.rows()).isEqualTo(ids.size());
+		assertThat(result.ranges()).isEqualTo((int) ((maxId - minId) / chunkSize + 1));
+		
+		// 구간마다 한 번, 완료 순서대로 - 마지막 진행 상황이 전체 결과와 같다
+		assertThat(progress).hasSize(result.ranges());
+		assertThat(progress).extracting(ScanProgress::completedRanges)
+				.containsExactlyElementsOf(IntStream.rangeClosed(1, result.ranges()).boxed().toList());
+		assertThat(progress).extracting(ScanProgress::rows).isSorted();
+		assertThat(progress.get(progress.size() - 1)).isEqualTo(new ScanProgress(result.ranges(), result.ranges(), ids.size()));
+	}
+}
@@ -0,0 +1,112 @@
+package study.datajpa.repository.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationListener.RepositoryMethodInvocation;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.support.PersistenceContextGuard.OverflowAction;
+
+/**
+ * 관리 엔티티 수가 max-managed-entities 를 넘으면 트랜잭션마다 한 번만 WARN, FLUSH_CLEAR 이면 flush 후 모두 준영속으로 만든다.
+ * 각 트랜잭션은 마지막에 롤백해서 다른 테스트에 데이터를 남기지 않는다.
+ */
+@SpringBootTest
+@ExtendWith(OutputCaptureExtension.class)
+class PersistenceContextGuardTest {
+
+	static final String OVERFLOW = "persistence context overflow";
+	static final Method FIND_MEMBER_CUSTOM = ReflectionUtils.findMethod(MemberRepository.class, "findMemberCustom");
+	
+	@Autowired PlatformTransactionManager transactionManager;
+	@PersistenceContext EntityManager em;
+	
+	@Test
+	void warnOncePerTransaction(CapturedOutput output) {
+		PersistenceContextGuard guard = guard(5, OverflowAction.LOG);
+		TransactionTemplate tx = new TransactionTemplate(transactionManager);
+		
+		tx.executeWithoutResult(status -> {
+			persistMembers(5);
+			guard.afterInvocation(invocation());
+			assertThat(overflowWarnings(output)).isZero(); // max 와 같으면 넘은 것이 아니다
+			
+			persistMembers(1);
+			guard.afterInvocation(invocation());
+			guard.afterInvocation(invocation());
+			guard.afterInvocation(invocation());
+			assertThat(overflowWarnings(output)).isEqualTo(1);
+			assertThat(guard.managedEntityCount()).isEqualTo(6); // LOG 는 영속성 컨텍스트를 건드리지 않는다
+			status.setRollbackOnly();
+		});
+		
+		// 새 트랜잭션에서는 다시 한 번 남긴다
+		tx.executeWithoutResult(status -> {
+			persistMembers(6);
+			guard.afterInvocation(invocation());
+			assertThat(overflowWarnings(output)).isEqualTo(2);
+			status.setRollbackOnly();
+		});
+	}
+	
+	@Test
+	void flushClearDetachesEntities() {
+		PersistenceContextGuard guard = guard(5, OverflowAction.FLUSH_CLEAR);
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			List<Member> members = persistMembers(6);
+			guard.afterInvocation(invocation());
+			
+			assertThat(guard.managedEntityCount()).isZero();
+			assertThat(members).noneMatch(em::contains);
+			assertThat(em.createQuery("select count(m) from Member m where m.username like 'guard%'", Long.class)
+					.getSingleResult()).isEqualTo(6); // clear 전에 flush 되었다
+			status.setRollbackOnly();
+		});
+	}
+	
+	@Test
+	void ignoreOutsideTransaction(CapturedOutput output) {
+		PersistenceContextGuard guard = guard(0, OverflowAction.FLUSH_CLEAR);
+		guard.afterInvocation(invocation());
+		guard(1, OverflowAction.FLUSH_CLEAR).afterInvocation(invocation());
+		assertThat(overflowWarnings(output)).isZero();
+	}
+	
+	private PersistenceContextGuard guard(int maxManagedEntities, OverflowAction overflowAction) {
+		PersistenceContextGuard guard = new PersistenceContextGuard(maxManagedEntities, overflowAction);
+		ReflectionTestUtils.setField(guard, "em", em);
+		return guard;
+	}
+	
+	private List<Member> persistMembers(int count) {
+		List<Member> members = IntStream.range(0, count).mapToObj(i -> new Member("guard" + i, i)).toList();
+		members.forEach(em::persist);
+		return members;
+	}
+	
+	private static RepositoryMethodInvocation invocation() {
+		return new RepositoryMethodInvocation(MemberRepository.class, FIND_MEMBER_CUSTOM, null, 0);
+	}
+	
+	private static int overflowWarnings(CapturedOutput output) {
+		return StringUtils.countOccurrencesOf(output.getOut(), OVERFLOW);
+	}
+}
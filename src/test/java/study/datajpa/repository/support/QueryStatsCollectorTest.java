@@ -0,0 +1,81 @@
+package study.datajpa.repository.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.Test;
+
+import study.datajpa.repository.support.QueryStatsCollector.MethodSummary;
+import study.datajpa.repository.support.QueryStatsCollector.SlowExecution;
+
+class QueryStatsCollectorTest {
+
+	/**
+	 * 1 ~ 100us 를 섞어서 기록 - p95 = 95, p99 = 99, max = 100 (nearest-rank)
+	 */
+	@Test
+	void percentiles() {
+		QueryStatsCollector collector = new QueryStatsCollector(100, 20, 100);
+		List<Long> durations = new ArrayList<>(LongStream.rangeClosed(1, 100).boxed().toList());
+		Collections.shuffle(durations, new Random(1));
+		for (int i = 0; i < durations.size(); i++) {
+			collector.record("MemberRepository.findByUsername", durations.get(i), i % 10 == 0);
+		}
+		
+		MethodSummary summary = collector.summaries().get(0);
+		assertThat(summary.method()).isEqualTo("MemberRepository.findByUsername");
+		assertThat(summary.count()).isEqualTo(100);
+		assertThat(summary.errors()).isEqualTo(10);
+		assertThat(summary.meanMicros()).isEqualTo(50);
+		assertThat(summary.p95Micros()).isEqualTo(95);
+		assertThat(summary.p99Micros()).isEqualTo(99);
+		assertThat(summary.maxMicros()).isEqualTo(100);
+	}
+	
+	/**
+	 * window 를 넘으면 오래된 값부터 덮어쓴다. count 는 전체 실행 횟수를 유지한다.
+	 */
+	@Test
+	void window() {
+		QueryStatsCollector collector = new QueryStatsCollector(10, 20, 100);
+		for (long micros = 1; micros <= 10; micros++) {
+			collector.record("MemberRepository.findByUsername", micros * 1000, false);
+		}
+		for (long micros = 1; micros <= 5; micros++) {
+			collector.record("MemberRepository.findByUsername", micros, false);
+		}
+		
+		MethodSummary summary = collector.summaries().get(0);
+		assertThat(summary.count()).isEqualTo(15);
+		assertThat(summary.maxMicros()).isEqualTo(10_000); // 6000 ~ 10000 은 남아 있다
+		assertThat(summary.p95Micros()).isEqualTo(10_000);
+		assertThat(summary.meanMicros()).isEqualTo((1 + 2 + 3 + 4 + 5 + 6000 + 7000 + 8000 + 9000 + 10_000) / 10);
+	}
+	
+	/**
+	 * threshold(100ms) 이상인 실행 중 가장 느린 slowest-size 건만 느린 순서로 남는다.
+	 */
+	@Test
+	void slowest() {
+		QueryStatsCollector collector = new QueryStatsCollector(100, 3, 100);
+		collector.record("MemberRepository.a", 150_000, false);
+		collector.record("MemberRepository.b", 300_000, false);
+		collector.record("MemberRepository.c", 50_000, false); // threshold 미만
+		collector.record("MemberRepository.d", 120_000, false);
+		collector.record("MemberRepository.e", 500_000, true);
+		collector.record("MemberRepository.f", 200_000, false);
+		
+		assertThat(collector.slowest()).extracting(SlowExecution::method)
+				.containsExactly("MemberRepository.e", "MemberRepository.b", "MemberRepository.f");
+		assertThat(collector.slowest().get(0).error()).isTrue();
+		
+		collector.reset();
+		assertThat(collector.slowest()).isEmpty();
+		assertThat(collector.summaries()).isEmpty();
+	}
+}
@@ -0,0 +1,54 @@
+package study.datajpa.repository.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+@SpringBootTest
+class RepositoryIndexAnalyzerTest {
+
+	@Autowired RepositoryIndexAnalyzer repositoryIndexAnalyzer;
+	
+	/**
+	 * 동등 조건 -> 범위 조건 -> 정렬 순으로 후보 컬럼을 만들고, 속성 이름은 컬럼 이름(@Column, @JoinColumn)으로 바꾼다.
+	 */
+	@Test
+	void candidates() {
+		Set<List<String>> candidates = RepositoryIndexAnalyzer.candidates(MemberRepository.class, Member.class);
+		
+		assertThat(candidates).contains(
+				List.of("username", "age"),   // findByUsernameAndAgeGreaterThan
+				List.of("age", "member_id"),  // findSkipLockedByAgeOrderByIdAsc (id -> @Column(name = "member_id"))
+				List.of("team_id"));          // @ManyToOne @JoinColumn(name = "team_id")
+		// JpaRepository 기본 메소드(findById 등)는 분석하지 않는다 (기본 키 인덱스가 있으므로)
+		assertThat(candidates).doesNotContain(List.of("member_id"));
+	}
+	
+	/**
+	 * 후보 컬럼으로 시작하는 인덱스가 있으면 후보에서 빠진다. (컬럼 순서가 다르면 사용할 수 없는 인덱스로 본다)
+	 */
+	@Test
+	void missingIndexes() {
+		List<List<String>> candidates = List.of(List.of("username", "age"), List.of("age", "member_id"), List.of("team_id"));
+		List<List<String>> indexes = List.of(List.of("age", "member_id", "username"), List.of("age", "username"), List.of("team_id"));
+		
+		assertThat(RepositoryIndexAnalyzer.missingIndexes("member", candidates, indexes))
+				.containsExactly("create index idx_member_username_age on member (username, age);");
+	}
+	
+	/**
+	 * Flyway 마이그레이션(V2, V3)으로 만든 인덱스가 Member 리포지토리 메소드의 후보를 모두 덮는다.
+	 */
+	@Test
+	void analyze() {
+		assertThat(repositoryIndexAnalyzer.analyze()).filteredOn(statement -> statement.contains(" on member ")).isEmpty();
+	}
+}